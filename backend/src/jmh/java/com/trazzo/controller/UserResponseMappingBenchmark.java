@@ -0,0 +1,71 @@
+package com.trazzo.controller;
+
+import com.trazzo.dto.response.UserResponse;
+import com.trazzo.model.User;
+import com.trazzo.model.enums.UserRole;
+import com.trazzo.service.BusinessService;
+import com.trazzo.service.NearbyBusinessCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping a nearby-businesses page to {@link UserResponse}s through
+ * {@link CustomerController#getNearbyBusinesses}, with the search itself stubbed out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserResponseMappingBenchmark {
+
+    private CustomerController controller;
+
+    @Setup
+    public void setUp() {
+        GeometryFactory geometryFactory = new GeometryFactory(new PrecisionModel(), 4326);
+        List<NearbyBusinessCache.BusinessSnapshot> page = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            page.add(NearbyBusinessCache.BusinessSnapshot.of(User.builder()
+                    .id((long) i)
+                    .email("shop" + i + "@trazzo.test")
+                    .phone("+9190000000" + i)
+                    .name("Owner " + i)
+                    .role(UserRole.BUSINESS)
+                    .businessName("Shop " + i)
+                    .businessDescription("Neighbourhood store")
+                    .category("GROCERY")
+                    .location(geometryFactory.createPoint(new Coordinate(77.59 + i * 0.001, 12.97)))
+                    .build()));
+        }
+        BusinessService businessService = new BusinessService(null, null, null) {
+            @Override
+            public List<NearbyBusinessCache.BusinessSnapshot> findNearbyBusinesses(
+                    double latitude, double longitude, Double radius) {
+                return page;
+            }
+        };
+        controller = new CustomerController(businessService, null);
+    }
+
+    @Benchmark
+    public List<UserResponse> mapPage() {
+        return controller.getNearbyBusinesses(12.97, 77.59, null).getBody();
+    }
+}
@@ -0,0 +1,75 @@
+package com.trazzo.security;
+
+import com.trazzo.model.User;
+import com.trazzo.model.enums.UserRole;
+import com.trazzo.model.enums.UserStatus;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.ReflectionUtils;
+
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request token work in {@link JwtAuthenticationFilter}: one verified parse plus building the
+ * principal from claims, against the older extract-subject-then-validate double parse.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtParseBenchmark {
+
+    private JwtService jwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        // Same values as application.yml; the fields are normally injected with @Value
+        setField("secretKey", "5367566B59703373367639792F423F4528482B4D6251655468576D5A71347437");
+        setField("accessTokenExpiration", 900_000L);
+        setField("refreshTokenExpiration", 604_800_000L);
+        jwtService.init();
+
+        user = User.builder()
+                .id(42L)
+                .email("bench@trazzo.test")
+                .name("Bench")
+                .role(UserRole.CUSTOMER)
+                .status(UserStatus.ACTIVE)
+                .build();
+        token = jwtService.generateAccessToken(user);
+    }
+
+    private void setField(String name, Object value) {
+        Field field = ReflectionUtils.findField(JwtService.class, name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, jwtService, value);
+    }
+
+    @Benchmark
+    public AuthenticatedUser parseOnce() {
+        Claims claims = jwtService.parseClaims(token);
+        return AuthenticatedUser.fromClaims(claims);
+    }
+
+    @Benchmark
+    public boolean extractThenValidate() {
+        String subject = jwtService.extractUsername(token);
+        return subject != null && jwtService.isTokenValid(token, user);
+    }
+}
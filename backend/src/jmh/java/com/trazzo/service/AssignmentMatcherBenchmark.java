@@ -0,0 +1,56 @@
+package com.trazzo.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one dispatch window ({@link RiderDispatchEngine}): greedy nearest-rider against the
+ * optimal Hungarian assignment on random pickup distances.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AssignmentMatcherBenchmark {
+
+    @Param({"20", "100", "200"})
+    private int orders;
+
+    private double[][] cost;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(17);
+        int riders = orders * 2;
+        cost = new double[orders][riders];
+        for (int i = 0; i < orders; i++) {
+            for (int j = 0; j < riders; j++) {
+                cost[i][j] = random.nextDouble() * 10_000;
+            }
+        }
+    }
+
+    @Benchmark
+    public int[] greedy() {
+        return AssignmentMatcher.greedy(cost);
+    }
+
+    @Benchmark
+    public int[] optimal() {
+        return AssignmentMatcher.optimal(cost);
+    }
+}
@@ -0,0 +1,106 @@
+package com.trazzo.service;
+
+import com.trazzo.model.Chat;
+import com.trazzo.model.Message;
+import com.trazzo.model.Order;
+import com.trazzo.model.User;
+import com.trazzo.model.enums.MessageType;
+import com.trazzo.model.enums.UserRole;
+import com.trazzo.model.enums.UserStatus;
+import com.trazzo.repository.MessageRepository;
+import com.trazzo.repository.OrderRepository;
+import com.trazzo.repository.UserRepository;
+import com.trazzo.security.AuthenticatedUser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Offer acceptance through {@link OrderService#createOrderFromOffer} up to its idempotency check:
+ * offer lookup, ownership checks and the JSON parse of the offer amount. Repositories are in-memory
+ * stubs and the order already exists, so nothing is written.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OfferAmountBenchmark {
+
+    private static final long CHAT_ID = 1L;
+    private static final long OFFER_ID = 10L;
+    private static final long MALFORMED_OFFER_ID = 11L;
+
+    private OrderService orderService;
+
+    @Setup
+    public void setUp() {
+        User customer = User.builder().id(2L).role(UserRole.CUSTOMER).build();
+        Chat chat = Chat.builder().id(CHAT_ID).customer(customer).build();
+        Map<Long, Message> offers = Map.of(
+                OFFER_ID, offer(chat, "{\"amount\":349.5,\"note\":\"2x paneer roll, 1x lassi\",\"etaMinutes\":25}"),
+                MALFORMED_OFFER_ID, offer(chat, "{\"amount\":"));
+        Order existing = Order.builder().id(100L).build();
+
+        UserRepository users = stub(UserRepository.class, Map.of("getReferenceById", args -> customer));
+        MessageRepository messages = stub(MessageRepository.class,
+                Map.of("findById", args -> Optional.ofNullable(offers.get((Long) args[0]))));
+        OrderRepository orders = stub(OrderRepository.class,
+                Map.of("findByChatIdAndOfferMessageId", args -> Optional.of(existing)));
+        orderService = new OrderService(orders, null, users, null, messages, null,
+                new CurrentUserService(users), null, null, null);
+
+        AuthenticatedUser principal = new AuthenticatedUser(2L, "customer@trazzo.test", UserRole.CUSTOMER, UserStatus.ACTIVE);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+
+    @Benchmark
+    public Order validOffer() {
+        return orderService.createOrderFromOffer(CHAT_ID, OFFER_ID, "1 MG Road", 12.97, 77.59);
+    }
+
+    @Benchmark
+    public Object malformedOffer() {
+        try {
+            return orderService.createOrderFromOffer(CHAT_ID, MALFORMED_OFFER_ID, "1 MG Road", 12.97, 77.59);
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    private static Message offer(Chat chat, String metadata) {
+        return Message.builder().chat(chat).type(MessageType.ORDER_PROPOSAL).metadata(metadata).build();
+    }
+
+    interface Answer {
+        Object apply(Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, Map<String, Answer> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            Answer answer = answers.get(method.getName());
+            if (answer == null) {
+                throw new UnsupportedOperationException(method.getName());
+            }
+            return answer.apply(args);
+        });
+    }
+}
@@ -0,0 +1,115 @@
+package com.trazzo.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * OTP issue-and-verify throughput: the Lua scripts of {@link OtpService} (two round trips) against
+ * the earlier SET, GET, DELETE sequence (three), plus code generation with a shared
+ * {@code SecureRandom} against a {@code new Random()} per code.
+ * <p>
+ * The round-trip benchmarks need a Redis on {@code localhost:6379}; point elsewhere with
+ * {@code -Djmh.args="OtpBenchmark -jvmArgs -Dredis.host=... -Dredis.port=..."}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class OtpBenchmark {
+
+    private static final AtomicInteger THREAD_IDS = new AtomicInteger();
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+    private OtpService otpService;
+
+    @State(Scope.Thread)
+    public static class Caller {
+        final String key = "bench:" + THREAD_IDS.incrementAndGet();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(
+                System.getProperty("redis.host", "localhost"),
+                Integer.getInteger("redis.port", 6379)));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+
+        otpService = new OtpService(redisTemplate);
+        // Same values as application.yml; the fields are normally injected with @Value
+        setField("otpExpiryMinutes", 15L);
+        setField("deliveryOtpExpiryMinutes", 180L);
+        setField("maxAttempts", 5);
+        setField("resendCooldownSeconds", 30L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    private void setField(String name, Object value) {
+        Field field = ReflectionUtils.findField(OtpService.class, name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, otpService, value);
+    }
+
+    @Benchmark
+    public boolean luaIssueAndVerify(Caller caller) {
+        String otp = otpService.generateOtp();
+        otpService.storeOtp(caller.key, otp);
+        return otpService.validateOtp(caller.key, otp);
+    }
+
+    /** The replaced implementation: separate GET and DELETE, racy between them. */
+    @Benchmark
+    public boolean legacyIssueAndVerify(Caller caller) {
+        String otp = legacyGenerate();
+        String redisKey = "otp:" + caller.key;
+        redisTemplate.opsForValue().set(redisKey, otp, Duration.ofMinutes(5));
+        String storedOtp = redisTemplate.opsForValue().get(redisKey);
+        if (storedOtp != null && storedOtp.equals(otp)) {
+            redisTemplate.delete(redisKey);
+            return true;
+        }
+        return false;
+    }
+
+    @Benchmark
+    public String secureRandomGenerate() {
+        return otpService.generateOtp();
+    }
+
+    @Benchmark
+    public String legacyGenerate() {
+        Random random = new Random();
+        int otp = 100000 + random.nextInt(900000);
+        return String.valueOf(otp);
+    }
+}
@@ -0,0 +1,44 @@
+package com.trazzo.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.PrecisionModel;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JTS {@link Point} creation as done for delivery and business locations: a shared SRID 4326
+ * factory, against building a factory per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PointCreationBenchmark {
+
+    private final GeometryFactory geometryFactory = new GeometryFactory(new PrecisionModel(), 4326);
+    private double latitude = 12.9716;
+    private double longitude = 77.5946;
+
+    @Benchmark
+    public Point sharedFactory() {
+        return geometryFactory.createPoint(new Coordinate(longitude, latitude));
+    }
+
+    @Benchmark
+    public Point factoryPerCall() {
+        return new GeometryFactory(new PrecisionModel(), 4326).createPoint(new Coordinate(longitude, latitude));
+    }
+}
@@ -0,0 +1,64 @@
+package com.trazzo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.trazzo.dto.response.MessageResponse;
+import com.trazzo.model.enums.MessageType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chat send fan-out: one encoding reused for the three destinations ({@link WebSocketPublisher})
+ * against one encoding per destination. Run with {@code -prof gc} for allocation per send.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WebSocketPayloadBenchmark {
+
+    private static final int DESTINATIONS = 3;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final MessageResponse message = MessageResponse.builder()
+            .id(1_000_001L)
+            .chatId(42L)
+            .senderId(7L)
+            .senderName("Shop 7")
+            .content("Your order is packed and waiting for the rider")
+            .type(MessageType.TEXT)
+            .sentAt(LocalDateTime.of(2024, 1, 15, 18, 30))
+            .build();
+
+    @Benchmark
+    public void encodeOnce(Blackhole bh) throws Exception {
+        byte[] payload = objectMapper.writeValueAsBytes(message);
+        for (int i = 0; i < DESTINATIONS; i++) {
+            bh.consume(payload);
+        }
+    }
+
+    @Benchmark
+    public void encodePerDestination(Blackhole bh) throws Exception {
+        for (int i = 0; i < DESTINATIONS; i++) {
+            bh.consume(objectMapper.writeValueAsBytes(message));
+        }
+    }
+}
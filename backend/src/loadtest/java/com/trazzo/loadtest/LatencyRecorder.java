@@ -0,0 +1,62 @@
+package com.trazzo.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint latency histograms (HdrHistogram, microsecond resolution) and error counts,
+ * safe to record into from any number of client threads.
+ */
+class LatencyRecorder {
+
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long startNanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        histograms.computeIfAbsent(endpoint, k -> new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 3))
+                .recordValue(Math.min(Math.max(micros, 0), MAX_TRACKABLE_MICROS));
+    }
+
+    void error(String endpoint) {
+        errors.computeIfAbsent(endpoint, k -> new LongAdder()).increment();
+    }
+
+    void reset() {
+        histograms.clear();
+        errors.clear();
+    }
+
+    String report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        StringBuilder out = new StringBuilder(String.format("%-28s %9s %9s %9s %9s %9s %8s%n",
+                "endpoint", "count", "req/s", "p50 ms", "p99 ms", "max ms", "errors"));
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(histograms).entrySet()) {
+            Histogram h = entry.getValue();
+            LongAdder failed = errors.get(entry.getKey());
+            out.append(String.format("%-28s %9d %9.1f %9.2f %9.2f %9.2f %8d%n",
+                    entry.getKey(),
+                    h.getTotalCount(),
+                    h.getTotalCount() / seconds,
+                    h.getValueAtPercentile(50) / 1000.0,
+                    h.getValueAtPercentile(99) / 1000.0,
+                    h.getMaxValue() / 1000.0,
+                    failed != null ? failed.sum() : 0));
+        }
+        for (Map.Entry<String, LongAdder> entry : new TreeMap<>(errors).entrySet()) {
+            if (!histograms.containsKey(entry.getKey())) {
+                out.append(String.format("%-28s %9d %9s %9s %9s %9s %8d%n",
+                        entry.getKey(), 0, "-", "-", "-", "-", entry.getValue().sum()));
+            }
+        }
+        return out.toString();
+    }
+}
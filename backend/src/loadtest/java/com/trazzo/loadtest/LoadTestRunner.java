@@ -0,0 +1,313 @@
+package com.trazzo.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trazzo.TrazzoApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end load test. Boots the application against throwaway PostGIS and Redis containers
+ * (or targets a running instance with {@code -Dloadtest.baseUrl}), registers synthetic customers,
+ * businesses and riders through the public API, then drives a weighted mix of flows for a fixed
+ * duration and prints p50/p99 latency and throughput per endpoint:
+ * <ul>
+ *   <li>nearby listing and paged search,</li>
+ *   <li>chat sends (a few chats also measure STOMP delivery),</li>
+ *   <li>offer acceptance through {@code /api/orders/from-offer}, timed until a rider is assigned,</li>
+ *   <li>rider GPS pings at a fixed rate, in the background.</li>
+ * </ul>
+ * Run: {@code mvn -Ploadtest compile exec:java -Dloadtest.duration=120 -Dloadtest.threads=128}.
+ * Compare thread models by running once as is and once with {@code -Dloadtest.profile=prod,virtual};
+ * {@link ThreadModelComparison} isolates the request-thread effect without Docker.
+ */
+public class LoadTestRunner {
+
+    private static final double CENTRE_LAT = 12.9716;
+    private static final double CENTRE_LNG = 77.5946;
+    private static final double SPREAD_DEGREES = 0.05; // ~5.5 km either side of the centre
+    private static final String PASSWORD = "LoadTest#2024";
+
+    record SeededUser(long id, String email, String token) {
+    }
+
+    record SeededChat(long id, SeededUser customer, SeededUser business, boolean probed) {
+    }
+
+    private final int customers = Integer.getInteger("loadtest.customers", 200);
+    private final int businesses = Integer.getInteger("loadtest.businesses", 50);
+    private final int riders = Integer.getInteger("loadtest.riders", 100);
+    private final int threads = Integer.getInteger("loadtest.threads", 64);
+    private final int durationSeconds = Integer.getInteger("loadtest.duration", 60);
+    private final int warmupSeconds = Integer.getInteger("loadtest.warmup", 10);
+    private final int pingIntervalMs = Integer.getInteger("loadtest.ping-interval-ms", 1000);
+    private final int probeChats = Integer.getInteger("loadtest.probe-chats", 20);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    private ApiClient api;
+    private final List<SeededUser> customerUsers = Collections.synchronizedList(new ArrayList<>());
+    private final List<SeededUser> businessUsers = Collections.synchronizedList(new ArrayList<>());
+    private final List<SeededUser> riderUsers = Collections.synchronizedList(new ArrayList<>());
+    private final List<SeededChat> chats = new ArrayList<>();
+    private final Map<Long, SeededUser> ridersById = new LinkedHashMap<>();
+
+    public static void main(String[] args) throws Exception {
+        new LoadTestRunner().run();
+    }
+
+    void run() throws Exception {
+        String baseUrl = System.getProperty("loadtest.baseUrl");
+        PostgreSQLContainer<?> postgres = null;
+        GenericContainer<?> redis = null;
+        ConfigurableApplicationContext app = null;
+        try {
+            if (baseUrl == null) {
+                postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgis/postgis:15-3.3")
+                        .asCompatibleSubstituteFor("postgres"))
+                        .withDatabaseName("trazzo")
+                        .withUsername("trazzo_user")
+                        .withPassword("trazzo_pass");
+                redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+                postgres.start();
+                redis.start();
+                // System properties outrank application-*.yml, so the containers win over the profile's defaults
+                System.setProperty("server.port", "0");
+                System.setProperty("spring.datasource.url", postgres.getJdbcUrl() + "&reWriteBatchedInserts=true");
+                System.setProperty("spring.datasource.username", postgres.getUsername());
+                System.setProperty("spring.datasource.password", postgres.getPassword());
+                System.setProperty("spring.data.redis.host", redis.getHost());
+                System.setProperty("spring.data.redis.port", redis.getMappedPort(6379).toString());
+                // Every synthetic client shares one address; -Dloadtest.rate-limit=true to measure throttling instead
+                System.setProperty("trazzo.rate-limit.enabled", System.getProperty("loadtest.rate-limit", "false"));
+                app = new SpringApplicationBuilder(TrazzoApplication.class)
+                        .profiles(System.getProperty("loadtest.profile", "prod"))
+                        .run();
+                baseUrl = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+            }
+            api = new ApiClient(baseUrl, objectMapper, recorder);
+
+            seed();
+            StompChatProbe probe = new StompChatProbe(recorder);
+            for (SeededChat chat : chats) {
+                if (chat.probed()) {
+                    probe.subscribe(baseUrl.replaceFirst("^http", "ws") + "/ws", chat.id(), chat.customer().token());
+                }
+            }
+
+            ScheduledExecutorService pings = Executors.newScheduledThreadPool(4);
+            for (SeededUser rider : riderUsers) {
+                pings.scheduleAtFixedRate(() -> ping(rider),
+                        ThreadLocalRandom.current().nextInt(pingIntervalMs), pingIntervalMs, TimeUnit.MILLISECONDS);
+            }
+
+            drive(warmupSeconds);
+            recorder.reset();
+            long start = System.nanoTime();
+            drive(durationSeconds);
+            long elapsed = System.nanoTime() - start;
+
+            pings.shutdownNow();
+            probe.close();
+            System.out.printf("%nTrazzo load test: %d customers, %d businesses, %d riders, %d threads, %ds%n%n",
+                    customers, businesses, riders, threads, durationSeconds);
+            System.out.println(recorder.report(elapsed));
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+            if (redis != null) {
+                redis.stop();
+            }
+            if (postgres != null) {
+                postgres.stop();
+            }
+        }
+    }
+
+    private void seed() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, 32));
+        for (int i = 0; i < businesses; i++) {
+            int n = i;
+            pool.submit(() -> businessUsers.add(register("BUSINESS", n)));
+        }
+        for (int i = 0; i < customers; i++) {
+            int n = i;
+            pool.submit(() -> customerUsers.add(register("CUSTOMER", n)));
+        }
+        for (int i = 0; i < riders; i++) {
+            int n = i;
+            pool.submit(() -> riderUsers.add(register("RIDER", n)));
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.MINUTES);
+
+        // Riders need a known location before they go AVAILABLE, so the location index picks them up
+        for (SeededUser rider : riderUsers) {
+            ridersById.put(rider.id(), rider);
+            ping(rider);
+        }
+        Thread.sleep(3000);
+        for (SeededUser rider : riderUsers) {
+            api.put("seed: rider status", "/api/rider/" + rider.id() + "/status?status=AVAILABLE", rider.token(), null);
+        }
+
+        for (int i = 0; i < customerUsers.size(); i++) {
+            SeededUser customer = customerUsers.get(i);
+            SeededUser business = businessUsers.get(i % businessUsers.size());
+            JsonNode chat = api.post("seed: chat create",
+                    "/api/chat/create?customerId=" + customer.id() + "&businessId=" + business.id(), customer.token(), null);
+            chats.add(new SeededChat(chat.path("id").asLong(), customer, business, i < probeChats));
+        }
+        System.out.printf("Seeded %d customers, %d businesses, %d riders, %d chats%n",
+                customerUsers.size(), businessUsers.size(), riderUsers.size(), chats.size());
+    }
+
+    private SeededUser register(String role, int n) {
+        String email = role.toLowerCase() + n + "-" + runId + "@loadtest.trazzo";
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("name", role + " " + n);
+        body.put("email", email);
+        body.put("phone", "+91" + runId + role.charAt(0) + n);
+        body.put("password", PASSWORD);
+        body.put("role", role);
+        if (role.equals("BUSINESS")) {
+            body.put("businessName", "Load Shop " + n);
+            body.put("businessDescription", "Synthetic business");
+            body.put("latitude", randomLat());
+            body.put("longitude", randomLng());
+        } else if (role.equals("RIDER")) {
+            body.put("vehicleType", "BIKE");
+            body.put("vehicleNumber", "KA01LT" + n);
+        } else {
+            body.put("deliveryAddress", n + " Load Test Road");
+        }
+        JsonNode auth = api.post("seed: register", "/api/auth/register", null, body);
+        return new SeededUser(auth.path("userId").asLong(), email, auth.path("accessToken").asText());
+    }
+
+    private void drive(int seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService clients = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            clients.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    try {
+                        nextFlow();
+                    } catch (RuntimeException e) {
+                        // Already counted as an error for the endpoint; keep the client running
+                    }
+                }
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+    }
+
+    private void nextFlow() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int roll = random.nextInt(100);
+        SeededChat chat = chats.get(random.nextInt(chats.size()));
+        if (roll < 40) {
+            api.get("GET nearby", "/api/customer/businesses/nearby?latitude=" + randomLat()
+                    + "&longitude=" + randomLng(), chat.customer().token());
+        } else if (roll < 55) {
+            api.get("GET search", "/api/customer/businesses/search?latitude=" + randomLat()
+                    + "&longitude=" + randomLng() + "&limit=20", chat.customer().token());
+        } else if (roll < 85) {
+            sendChat(chat);
+        } else {
+            acceptOffer(chat);
+        }
+    }
+
+    private void sendChat(SeededChat chat) {
+        String content = chat.probed()
+                ? StompChatProbe.PREFIX + System.nanoTime()
+                : "Is this still available?";
+        Map<String, Object> body = Map.of(
+                "chatId", chat.id(),
+                "senderId", chat.customer().id(),
+                "content", content,
+                "type", "TEXT");
+        api.post("POST chat send", "/api/chat/send", chat.customer().token(), body);
+    }
+
+    private void acceptOffer(SeededChat chat) {
+        Map<String, Object> offer = Map.of(
+                "chatId", chat.id(),
+                "senderId", chat.business().id(),
+                "content", "Offer",
+                "type", "ORDER_PROPOSAL",
+                "metadata", "{\"amount\":" + (100 + ThreadLocalRandom.current().nextInt(900)) + "}");
+        JsonNode message = api.post("POST chat send (offer)", "/api/chat/send", chat.business().token(), offer);
+
+        Map<String, Object> accept = Map.of(
+                "chatId", chat.id(),
+                "messageId", message.path("id").asLong(),
+                "deliveryAddress", "Load Test Road",
+                "latitude", randomLat(),
+                "longitude", randomLng());
+        long accepted = System.nanoTime();
+        JsonNode order = api.post("POST from-offer", "/api/orders/from-offer", chat.customer().token(), accept);
+        awaitRider(order.path("id").asLong(), chat.customer(), accepted);
+    }
+
+    /** Polls the order until a rider is attached; the wait is recorded as assignment latency. */
+    private void awaitRider(long orderId, SeededUser customer, long acceptedNanos) {
+        long deadline = acceptedNanos + TimeUnit.SECONDS.toNanos(15);
+        while (System.nanoTime() < deadline) {
+            JsonNode order = api.get("GET order", "/api/orders/" + orderId, customer.token());
+            long riderId = order.path("riderId").asLong(0);
+            if (riderId != 0) {
+                recorder.record("assignment (async)", acceptedNanos);
+                // Free the rider again so the pool does not drain during the run
+                SeededUser rider = ridersById.get(riderId);
+                if (rider != null) {
+                    api.put("PUT rider status", "/api/rider/" + riderId + "/status?status=AVAILABLE", rider.token(), null);
+                }
+                return;
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        recorder.error("assignment (async)");
+    }
+
+    private void ping(SeededUser rider) {
+        try {
+            api.put("PUT rider location", "/api/rider/" + rider.id() + "/location?latitude=" + randomLat()
+                    + "&longitude=" + randomLng(), rider.token(), null);
+        } catch (RuntimeException e) {
+            // Counted by the recorder
+        }
+    }
+
+    private static double randomLat() {
+        return CENTRE_LAT + (ThreadLocalRandom.current().nextDouble() * 2 - 1) * SPREAD_DEGREES;
+    }
+
+    private static double randomLng() {
+        return CENTRE_LNG + (ThreadLocalRandom.current().nextDouble() * 2 - 1) * SPREAD_DEGREES;
+    }
+}
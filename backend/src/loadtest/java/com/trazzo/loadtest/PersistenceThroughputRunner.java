@@ -0,0 +1,164 @@
+package com.trazzo.loadtest;
+
+import com.trazzo.TrazzoApplication;
+import com.trazzo.model.Chat;
+import com.trazzo.model.Message;
+import com.trazzo.model.OrderItem;
+import com.trazzo.model.User;
+import com.trazzo.model.enums.UserRole;
+import com.trazzo.repository.ChatRepository;
+import com.trazzo.repository.MessageRepository;
+import com.trazzo.repository.UserRepository;
+import com.trazzo.service.OrderService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write throughput of the default settings against the {@code prod} profile (JDBC batching,
+ * ordered inserts, {@code reWriteBatchedInserts}, tuned pool, SQL logging off) for the two paths
+ * that profile targets:
+ * <ul>
+ *   <li>order-item replacement through {@link OrderService#updateOrderItems},</li>
+ *   <li>message inserts through {@link MessageRepository#saveAll}, one transaction per batch.</li>
+ * </ul>
+ * Each profile boots the application on the same PostGIS and Redis containers, warms up, then runs
+ * each workload single-threaded for a fixed time. Both runs use the pooled sequence ids from V11;
+ * what differs is everything the profile switches on.
+ * Run: {@code mvn -Ploadtest compile exec:java -Dloadtest.main=com.trazzo.loadtest.PersistenceThroughputRunner}.
+ */
+public class PersistenceThroughputRunner {
+
+    private static final String[] PROFILES = {"default", "prod"};
+
+    private final int itemsPerOrder = Integer.getInteger("loadtest.items-per-order", 20);
+    private final int messagesPerBatch = Integer.getInteger("loadtest.messages-per-batch", 50);
+    private final int durationSeconds = Integer.getInteger("loadtest.duration", 30);
+    private final int warmupSeconds = Integer.getInteger("loadtest.warmup", 10);
+
+    record Result(String profile, String workload, long operations, long rows, long elapsedNanos) {
+    }
+
+    public static void main(String[] args) {
+        new PersistenceThroughputRunner().run();
+    }
+
+    void run() {
+        PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgis/postgis:15-3.3")
+                .asCompatibleSubstituteFor("postgres"))
+                .withDatabaseName("trazzo")
+                .withUsername("trazzo_user")
+                .withPassword("trazzo_pass");
+        GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+        List<Result> results = new ArrayList<>();
+        try {
+            postgres.start();
+            redis.start();
+            for (String profile : PROFILES) {
+                String url = postgres.getJdbcUrl() + (profile.equals("prod") ? "&reWriteBatchedInserts=true" : "");
+                // Command-line arguments outrank application-*.yml, so the containers win over the profile
+                try (ConfigurableApplicationContext app = new SpringApplicationBuilder(TrazzoApplication.class)
+                        .profiles(profile)
+                        .run("--server.port=0",
+                                "--spring.datasource.url=" + url,
+                                "--spring.datasource.username=" + postgres.getUsername(),
+                                "--spring.datasource.password=" + postgres.getPassword(),
+                                "--spring.data.redis.host=" + redis.getHost(),
+                                "--spring.data.redis.port=" + redis.getMappedPort(6379),
+                                "--trazzo.rate-limit.enabled=false")) {
+                    results.addAll(measure(profile, app));
+                }
+            }
+        } finally {
+            redis.stop();
+            postgres.stop();
+        }
+
+        System.out.printf("%nPersistence throughput: %d items per order, %d messages per batch, %ds per workload%n%n",
+                itemsPerOrder, messagesPerBatch, durationSeconds);
+        System.out.printf("%-10s %-22s %10s %10s %10s%n", "profile", "workload", "ops", "ops/s", "rows/s");
+        for (Result r : results) {
+            double seconds = r.elapsedNanos() / 1e9;
+            System.out.printf("%-10s %-22s %10d %10.1f %10.1f%n",
+                    r.profile(), r.workload(), r.operations(), r.operations() / seconds, r.rows() / seconds);
+        }
+    }
+
+    private List<Result> measure(String profile, ConfigurableApplicationContext app) {
+        UserRepository users = app.getBean(UserRepository.class);
+        ChatRepository chats = app.getBean(ChatRepository.class);
+        MessageRepository messages = app.getBean(MessageRepository.class);
+        OrderService orders = app.getBean(OrderService.class);
+        TransactionTemplate tx = app.getBean(TransactionTemplate.class);
+
+        User customer = users.save(user(profile, UserRole.CUSTOMER));
+        User business = users.save(user(profile, UserRole.BUSINESS));
+        Chat chat = chats.save(Chat.builder().customer(customer).business(business).build());
+        Long orderId = orders.createOrder(customer.getId(), business.getId(), chat.getId(),
+                "1 Benchmark Road", 12.9716, 77.5946).getId();
+
+        Runnable replaceItems = () -> orders.updateOrderItems(orderId, items());
+        Runnable insertMessages = () -> tx.executeWithoutResult(status -> messages.saveAll(messages(chat, customer)));
+
+        time(profile, "warmup", replaceItems, 0, warmupSeconds);
+        time(profile, "warmup", insertMessages, 0, warmupSeconds);
+        return List.of(
+                time(profile, "order-item replacement", replaceItems, itemsPerOrder, durationSeconds),
+                time(profile, "message insert", insertMessages, messagesPerBatch, durationSeconds));
+    }
+
+    /**
+     * Runs the workload back to back for the given time; each run writes {@code rowsPerOperation} rows.
+     */
+    private Result time(String profile, String workload, Runnable operation, int rowsPerOperation, int seconds) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        long operations = 0;
+        while (System.nanoTime() < deadline) {
+            operation.run();
+            operations++;
+        }
+        return new Result(profile, workload, operations, operations * rowsPerOperation, System.nanoTime() - start);
+    }
+
+    private List<OrderItem> items() {
+        List<OrderItem> items = new ArrayList<>(itemsPerOrder);
+        for (int i = 0; i < itemsPerOrder; i++) {
+            BigDecimal price = BigDecimal.valueOf(10 + i);
+            items.add(OrderItem.builder()
+                    .itemName("Item " + i)
+                    .quantity(1)
+                    .unitPrice(price)
+                    .subtotal(price)
+                    .build());
+        }
+        return items;
+    }
+
+    private List<Message> messages(Chat chat, User sender) {
+        List<Message> batch = new ArrayList<>(messagesPerBatch);
+        for (int i = 0; i < messagesPerBatch; i++) {
+            batch.add(Message.builder().chat(chat).sender(sender).content("Benchmark message " + i).build());
+        }
+        return batch;
+    }
+
+    private User user(String profile, UserRole role) {
+        String suffix = profile + "-" + role.name().toLowerCase() + "-" + Long.toString(System.nanoTime(), 36);
+        return User.builder()
+                .email(suffix + "@bench.trazzo")
+                .phone("+1" + suffix)
+                .passwordHash("x")
+                .name("Bench " + suffix)
+                .role(role)
+                .build();
+    }
+}
@@ -0,0 +1,66 @@
+package com.trazzo.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * STOMP subscribers on a few chat topics. Chat sends to those chats carry their send time in the
+ * content ({@link #PREFIX} + nanoTime), so the probe records REST send to WebSocket delivery.
+ */
+class StompChatProbe {
+
+    static final String PREFIX = "probe:";
+
+    private final WebSocketStompClient client;
+    private final LatencyRecorder recorder;
+    private final List<StompSession> sessions = new ArrayList<>();
+
+    StompChatProbe(LatencyRecorder recorder) {
+        this.recorder = recorder;
+        this.client = new WebSocketStompClient(new StandardWebSocketClient());
+        this.client.setMessageConverter(new MappingJackson2MessageConverter());
+    }
+
+    /** Subscribe as a chat participant; STOMP CONNECT needs the user's access token. */
+    void subscribe(String wsUrl, long chatId, String token) throws Exception {
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add("Authorization", "Bearer " + token);
+        StompSession session = client.connectAsync(wsUrl, new WebSocketHttpHeaders(), connectHeaders,
+                new StompSessionHandlerAdapter() {
+                }).get(10, TimeUnit.SECONDS);
+        session.subscribe("/topic/chat/" + chatId, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return JsonNode.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                String content = ((JsonNode) payload).path("content").asText("");
+                if (content.startsWith(PREFIX)) {
+                    recorder.record("stomp chat fan-out", Long.parseLong(content.substring(PREFIX.length())));
+                }
+            }
+        });
+        sessions.add(session);
+    }
+
+    void close() {
+        for (StompSession session : sessions) {
+            session.disconnect();
+        }
+        client.stop();
+    }
+}
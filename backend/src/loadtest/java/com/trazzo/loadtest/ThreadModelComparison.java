@@ -0,0 +1,107 @@
+package com.trazzo.loadtest;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.embedded.EmbeddedWebServerFactoryCustomizerAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Platform against virtual request threads, without Docker: boots only the embedded Tomcat and
+ * Spring MVC with one endpoint that blocks for {@code loadtest.io-ms} per request, standing in for
+ * the JDBC and Redis waits of the real handlers, and drives it with {@code loadtest.clients}
+ * concurrent callers. Run once per thread model and prints throughput and latency of each.
+ * The full application comparison is {@link LoadTestRunner} with {@code -Dloadtest.profile=prod}
+ * against {@code -Dloadtest.profile=prod,virtual}, which needs Docker.
+ * Run: {@code mvn -Ploadtest compile exec:java -Dloadtest.main=com.trazzo.loadtest.ThreadModelComparison}.
+ */
+public class ThreadModelComparison {
+
+    private final int clients = Integer.getInteger("loadtest.clients", 1000);
+    private final int ioMillis = Integer.getInteger("loadtest.io-ms", 20);
+    private final int durationSeconds = Integer.getInteger("loadtest.duration", 20);
+    private final int warmupSeconds = Integer.getInteger("loadtest.warmup", 5);
+
+    @SpringBootConfiguration
+    @ImportAutoConfiguration({
+            ServletWebServerFactoryAutoConfiguration.class,
+            EmbeddedWebServerFactoryCustomizerAutoConfiguration.class,
+            DispatcherServletAutoConfiguration.class,
+            WebMvcAutoConfiguration.class,
+            TaskExecutionAutoConfiguration.class})
+    @RestController
+    static class BlockingEndpoint {
+
+        private final long ioMillis = Long.getLong("loadtest.io-ms", 20);
+
+        @GetMapping("/work")
+        String work() throws InterruptedException {
+            Thread.sleep(ioMillis);
+            return Thread.currentThread().isVirtual() ? "virtual" : "platform";
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new ThreadModelComparison().run();
+    }
+
+    void run() throws Exception {
+        StringBuilder report = new StringBuilder();
+        for (boolean virtual : new boolean[] {false, true}) {
+            try (ConfigurableApplicationContext app = new SpringApplicationBuilder(BlockingEndpoint.class)
+                    .run("--server.port=0", "--spring.threads.virtual.enabled=" + virtual)) {
+                String url = "http://localhost:" + app.getEnvironment().getProperty("local.server.port") + "/work";
+                LatencyRecorder recorder = new LatencyRecorder();
+                drive(url, recorder, warmupSeconds);
+                recorder.reset();
+                long start = System.nanoTime();
+                drive(url, recorder, durationSeconds);
+                report.append(String.format("%n%s request threads:%n", virtual ? "Virtual" : "Platform"))
+                        .append(recorder.report(System.nanoTime() - start));
+            }
+        }
+        System.out.printf("%nThread model comparison: %d clients, %d ms blocking per request, %ds%n%s",
+                clients, ioMillis, durationSeconds, report);
+    }
+
+    private void drive(String url, LatencyRecorder recorder, int seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).build();
+        try (HttpClient http = HttpClient.newHttpClient();
+             ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                callers.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+                            if (response.statusCode() == 200) {
+                                recorder.record("GET /work", start);
+                            } else {
+                                recorder.error("GET /work");
+                            }
+                        } catch (Exception e) {
+                            recorder.error("GET /work");
+                        }
+                    }
+                });
+            }
+            callers.shutdown();
+            callers.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -2,8 +2,10 @@ package com.trazzo;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class TrazzoApplication {
     public static void main(String[] args) {
         SpringApplication.run(TrazzoApplication.class, args);
@@ -0,0 +1,56 @@
+package com.trazzo.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Token bucket limits under {@code trazzo.rate-limit}. {@code routes} match request paths and
+ * {@code destinations} match STOMP SEND destinations (Ant patterns, first match wins); REST calls
+ * under {@code /api/} that match no route share {@code default-limit}. Capacities and refill rates
+ * must be positive; startup fails otherwise.
+ */
+@Data
+@Validated
+@Component
+@ConfigurationProperties(prefix = "trazzo.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    @Valid
+    private Limit defaultLimit = new Limit("/api/**", 120, 20);
+
+    private List<@Valid Limit> routes = new ArrayList<>();
+
+    private List<@Valid Limit> destinations = new ArrayList<>();
+
+    /** Idle buckets kept in memory per instance. */
+    private long maxLocalBuckets = 100_000;
+
+    @Data
+    public static class Limit {
+        private String pattern;
+        /** Burst size. */
+        @Positive
+        private int capacity;
+        /** Tokens added per second; the Redis bucket divides by it to compute the wait. */
+        @Positive
+        private double refillPerSecond;
+
+        public Limit() {
+        }
+
+        public Limit(String pattern, int capacity, double refillPerSecond) {
+            this.pattern = pattern;
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.trazzo.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Cross-node fan-out for the in-JVM STOMP broker ({@code trazzo.websocket.broker=redis}).
+ * <p>
+ * Registered as an interceptor on the broker channel: every message an instance sends through
+ * {@code SimpMessagingTemplate} (to {@code /topic}, {@code /queue} or an unresolved {@code /user/...}
+ * destination) is delivered locally as usual and also published on one Redis channel. Every other
+ * instance injects it into its own broker channel, where its {@code UserDestinationMessageHandler}
+ * resolves {@code /user/...} against its own sessions. A user connected to any node therefore
+ * receives the message. Messages already resolved to a session are not published.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "trazzo.websocket.broker", havingValue = "redis")
+public class RedisBrokerFanout implements ChannelInterceptor {
+
+    static final String CHANNEL = "trazzo:ws:fanout";
+    /** Marks a message injected from Redis so it is not published again. */
+    private static final String RELAYED_HEADER = "trazzoRelayed";
+
+    record Envelope(String origin, String destination, String contentType, long publishedAtMillis, byte[] payload) {
+    }
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisConnectionFactory connectionFactory;
+    private final MessageChannel brokerChannel;
+    private final ObjectMapper objectMapper;
+
+    private final Counter published;
+    private final Counter received;
+    private final Timer fanoutLatency;
+
+    private RedisMessageListenerContainer listenerContainer;
+
+    public RedisBrokerFanout(StringRedisTemplate redisTemplate,
+            RedisConnectionFactory connectionFactory,
+            @Lazy @Qualifier("brokerChannel") MessageChannel brokerChannel,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.connectionFactory = connectionFactory;
+        this.brokerChannel = brokerChannel;
+        this.objectMapper = objectMapper;
+        this.published = Counter.builder("trazzo.ws.fanout.published")
+                .description("Broker messages published to other nodes")
+                .register(meterRegistry);
+        this.received = Counter.builder("trazzo.ws.fanout.received")
+                .description("Broker messages received from other nodes")
+                .register(meterRegistry);
+        this.fanoutLatency = Timer.builder("trazzo.ws.fanout.latency")
+                .description("Publish on the sending node to local broker delivery on this node (wall clock)")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.addMessageListener((message, pattern) -> receive(message.getBody()), new ChannelTopic(CHANNEL));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws Exception {
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        if (accessor.getMessageType() != SimpMessageType.MESSAGE
+                || accessor.getHeader(RELAYED_HEADER) != null
+                || message.getHeaders().containsKey(SimpMessageHeaderAccessor.ORIGINAL_DESTINATION)
+                || accessor.getDestination() == null
+                || !(message.getPayload() instanceof byte[] payload)) {
+            return message;
+        }
+        MimeType contentType = accessor.getContentType();
+        Envelope envelope = new Envelope(nodeId, accessor.getDestination(),
+                contentType != null ? contentType.toString() : null, System.currentTimeMillis(), payload);
+        try {
+            redisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(envelope));
+            published.increment();
+        } catch (Exception e) {
+            // Local delivery still goes ahead; only users on other nodes miss this message
+            log.warn("WebSocket fan-out publish to {} failed: {}", accessor.getDestination(), e.getMessage());
+        }
+        return message;
+    }
+
+    private void receive(byte[] body) {
+        try {
+            Envelope envelope = objectMapper.readValue(body, Envelope.class);
+            if (nodeId.equals(envelope.origin())) {
+                return;
+            }
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            accessor.setDestination(envelope.destination());
+            if (envelope.contentType() != null) {
+                accessor.setContentType(MimeType.valueOf(envelope.contentType()));
+            }
+            accessor.setHeader(RELAYED_HEADER, Boolean.TRUE);
+            accessor.setLeaveMutable(true);
+            MessageHeaders headers = accessor.getMessageHeaders();
+            brokerChannel.send(MessageBuilder.createMessage(envelope.payload(), headers));
+            received.increment();
+            fanoutLatency.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - envelope.publishedAtMillis())));
+        } catch (Exception e) {
+            log.warn("WebSocket fan-out delivery failed: {}", e.getMessage());
+        }
+    }
+}
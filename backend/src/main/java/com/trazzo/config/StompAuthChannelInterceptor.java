@@ -0,0 +1,72 @@
+package com.trazzo.config;
+
+import com.trazzo.repository.UserRepository;
+import com.trazzo.security.AuthenticatedUser;
+import com.trazzo.security.JwtService;
+import com.trazzo.security.UserPrincipalCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authenticates STOMP sessions. The CONNECT frame must carry {@code Authorization: Bearer <access
+ * token>} as a native header, checked the same way as on REST; the resulting principal is the
+ * session user for every later frame, so handlers take the caller from it rather than the payload.
+ * Tokens of accounts that are not ACTIVE are refused.
+ */
+@Component
+@RequiredArgsConstructor
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private final JwtService jwtService;
+    private final UserRepository userRepository;
+    private final UserPrincipalCache userPrincipalCache;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.CONNECT) {
+            return message;
+        }
+        String authHeader = accessor.getFirstNativeHeader("Authorization");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            throw new MessagingException("Missing access token");
+        }
+        AuthenticatedUser principal = authenticate(authHeader.substring(7));
+        accessor.setUser(new UsernamePasswordAuthenticationToken(principal, null, principal.authorities()));
+        return message;
+    }
+
+    private AuthenticatedUser authenticate(String jwt) {
+        final Claims claims;
+        try {
+            claims = jwtService.parseClaims(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new MessagingException("Invalid access token");
+        }
+        if (JwtService.isRefreshToken(claims) || claims.getSubject() == null) {
+            throw new MessagingException("Invalid access token");
+        }
+        AuthenticatedUser principal = AuthenticatedUser.fromClaims(claims);
+        if (principal == null) {
+            principal = userPrincipalCache.get(claims.getSubject(),
+                    email -> userRepository.findByEmail(email).map(AuthenticatedUser::from).orElse(null));
+        }
+        if (principal == null) {
+            throw new MessagingException("Unknown user");
+        }
+        if (!principal.isActive()) {
+            throw new MessagingException("Account is not active");
+        }
+        return principal;
+    }
+}
@@ -0,0 +1,83 @@
+package com.trazzo.config;
+
+import com.trazzo.security.RateLimiter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.net.InetSocketAddress;
+import java.security.Principal;
+import java.util.Map;
+
+/**
+ * Token buckets for STOMP SEND frames on the client inbound channel, per destination and caller
+ * (STOMP user if any, else the client address captured at handshake). Over-limit frames are dropped
+ * rather than answered with an ERROR frame, which would close the whole connection.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StompRateLimitInterceptor implements ChannelInterceptor, HandshakeInterceptor {
+
+    private static final String REMOTE_ADDRESS_ATTRIBUTE = "trazzo.remoteAddress";
+
+    private final RateLimiter rateLimiter;
+    private final RateLimitProperties properties;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (!properties.isEnabled() || SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+            return message;
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination == null) {
+            return message;
+        }
+        RateLimitProperties.Limit limit = rateLimiter.match(properties.getDestinations(), destination, null);
+        if (limit == null) {
+            return message;
+        }
+        if (rateLimiter.tryAcquire(limit, caller(message), "stomp") > 0) {
+            log.debug("Dropped STOMP frame to {} over rate limit", destination);
+            return null;
+        }
+        return message;
+    }
+
+    private String caller(Message<?> message) {
+        Principal user = SimpMessageHeaderAccessor.getUser(message.getHeaders());
+        if (user != null) {
+            return "u:" + user.getName();
+        }
+        Map<String, Object> attributes = SimpMessageHeaderAccessor.getSessionAttributes(message.getHeaders());
+        Object address = attributes != null ? attributes.get(REMOTE_ADDRESS_ATTRIBUTE) : null;
+        if (address != null) {
+            return "ip:" + address;
+        }
+        return "s:" + SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+    }
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        InetSocketAddress remote = request.getRemoteAddress();
+        if (remote != null && remote.getAddress() != null) {
+            attributes.put(REMOTE_ADDRESS_ATTRIBUTE, remote.getAddress().getHostAddress());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+}
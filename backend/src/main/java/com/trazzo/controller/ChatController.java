@@ -1,9 +1,11 @@
 package com.trazzo.controller;
 
 import com.trazzo.dto.request.SendMessageRequest;
+import com.trazzo.dto.response.ChatSummaryResponse;
+import com.trazzo.dto.response.MessageResponse;
 import com.trazzo.model.Chat;
-import com.trazzo.model.Message;
 import com.trazzo.service.ChatService;
+import com.trazzo.service.CurrentUserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.messaging.handler.annotation.MessageMapping;
@@ -36,6 +38,7 @@ public class ChatController {
     public static class ChatRestController {
 
         private final ChatService chatService;
+        private final CurrentUserService currentUserService;
 
         @PostMapping("/create")
         public ResponseEntity<Chat> createChat(
@@ -44,19 +47,40 @@ public class ChatController {
             return ResponseEntity.ok(chatService.getOrCreateChat(customerId, businessId));
         }
 
+        /**
+         * Paged history, oldest first within the page. Pass {@code before} (oldest id the client holds)
+         * to load earlier messages, or {@code after} (newest id it holds) to catch up.
+         */
         @GetMapping("/{chatId}/messages")
-        public ResponseEntity<List<Message>> getChatMessages(@PathVariable Long chatId) {
-            return ResponseEntity.ok(chatService.getChatMessages(chatId));
+        public ResponseEntity<List<MessageResponse>> getChatMessages(
+                @PathVariable Long chatId,
+                @RequestParam(required = false) Long before,
+                @RequestParam(required = false) Long after,
+                @RequestParam(required = false) Integer size) {
+            return ResponseEntity.ok(chatService.getChatMessages(chatId, before, after, size));
         }
 
+        /**
+         * Inbox of the calling user; another user's id is refused.
+         */
         @GetMapping("/user/{userId}")
-        public ResponseEntity<List<Chat>> getUserChats(@PathVariable Long userId) {
+        public ResponseEntity<List<ChatSummaryResponse>> getUserChats(@PathVariable Long userId) {
+            currentUserService.requireSelf(userId);
             return ResponseEntity.ok(chatService.getUserChats(userId));
         }
 
+        /**
+         * Mark the chat read for the calling user, who must be one of its two parties.
+         */
+        @PostMapping("/{chatId}/read")
+        public ResponseEntity<Void> markRead(@PathVariable Long chatId) {
+            chatService.markRead(chatId, currentUserService.getCurrentUserOrThrow().getId());
+            return ResponseEntity.ok().build();
+        }
+
         @PostMapping("/send")
-        public ResponseEntity<Message> sendMessage(@Valid @RequestBody SendMessageRequest request) {
-            Message message = chatService.sendMessage(
+        public ResponseEntity<MessageResponse> sendMessage(@Valid @RequestBody SendMessageRequest request) {
+            MessageResponse message = chatService.sendMessage(
                     request.getChatId(),
                     request.getSenderId(),
                     request.getContent(),
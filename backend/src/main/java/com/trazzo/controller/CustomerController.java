@@ -1,11 +1,13 @@
 package com.trazzo.controller;
 
 import com.trazzo.dto.request.UpdateCustomerProfileRequest;
+import com.trazzo.dto.response.BusinessSearchResponse;
 import com.trazzo.dto.response.UserResponse;
 import com.trazzo.model.User;
 import com.trazzo.service.AuthenticationService;
 import com.trazzo.service.BusinessService;
 import com.trazzo.service.CustomerService;
+import com.trazzo.service.NearbyBusinessCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -41,7 +43,8 @@ public class CustomerController {
             @RequestParam double latitude,
             @RequestParam double longitude,
             @RequestParam(required = false) Double radius) {
-        List<User> businesses = businessService.findNearbyBusinesses(latitude, longitude, radius);
+        List<NearbyBusinessCache.BusinessSnapshot> businesses =
+                businessService.findNearbyBusinesses(latitude, longitude, radius);
 
         List<UserResponse> response = businesses.stream()
                 .map(this::toUserResponse)
@@ -50,12 +53,47 @@ public class CustomerController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/businesses/search")
+    public ResponseEntity<BusinessSearchResponse> searchBusinesses(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(required = false) Double radius,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        BusinessService.SearchPage page = businessService.searchBusinesses(
+                latitude, longitude, radius, category, limit, cursor);
+
+        return ResponseEntity.ok(BusinessSearchResponse.builder()
+                .businesses(page.businesses().stream()
+                        .map(this::toUserResponse)
+                        .collect(Collectors.toList()))
+                .nextCursor(page.nextCursor())
+                .build());
+    }
+
     @GetMapping("/businesses/{id}")
     public ResponseEntity<UserResponse> getBusinessById(@PathVariable Long id) {
         User business = businessService.getBusinessById(id);
         return ResponseEntity.ok(toUserResponse(business));
     }
 
+    private UserResponse toUserResponse(NearbyBusinessCache.BusinessSnapshot business) {
+        return UserResponse.builder()
+                .id(business.id())
+                .name(business.name())
+                .email(business.email())
+                .phone(business.phone())
+                .role(business.role())
+                .profileImageUrl(business.profileImageUrl())
+                .businessName(business.businessName())
+                .businessDescription(business.businessDescription())
+                .category(business.category())
+                .latitude(business.latitude())
+                .longitude(business.longitude())
+                .build();
+    }
+
     private UserResponse toUserResponse(User user) {
         UserResponse.UserResponseBuilder builder = UserResponse.builder()
                 .id(user.getId())
@@ -2,6 +2,7 @@ package com.trazzo.controller;
 
 import com.trazzo.dto.request.AcceptOfferRequest;
 import com.trazzo.dto.request.OrderItemRequest;
+import com.trazzo.dto.response.OrderResponse;
 import com.trazzo.model.Order;
 import com.trazzo.model.OrderItem;
 import com.trazzo.service.OrderService;
@@ -11,6 +12,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -77,22 +79,36 @@ public class OrderController {
     }
 
     @GetMapping("/{orderId}")
-    public ResponseEntity<Order> getOrder(@PathVariable Long orderId) {
+    public ResponseEntity<OrderResponse> getOrder(@PathVariable Long orderId) {
         return ResponseEntity.ok(orderService.getOrder(orderId));
     }
 
+    @GetMapping("/{orderId}/delivery-otp")
+    public ResponseEntity<Map<String, String>> getDeliveryOtp(@PathVariable Long orderId) {
+        return ResponseEntity.ok(Map.of("otp", orderService.getDeliveryOtp(orderId)));
+    }
+
     @GetMapping("/customer/{customerId}")
-    public ResponseEntity<List<Order>> getCustomerOrders(@PathVariable Long customerId) {
-        return ResponseEntity.ok(orderService.getCustomerOrders(customerId));
+    public ResponseEntity<List<OrderResponse>> getCustomerOrders(
+            @PathVariable Long customerId,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(orderService.getCustomerOrders(customerId, page, size));
     }
 
     @GetMapping("/business/{businessId}")
-    public ResponseEntity<List<Order>> getBusinessOrders(@PathVariable Long businessId) {
-        return ResponseEntity.ok(orderService.getBusinessOrders(businessId));
+    public ResponseEntity<List<OrderResponse>> getBusinessOrders(
+            @PathVariable Long businessId,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(orderService.getBusinessOrders(businessId, page, size));
     }
 
     @GetMapping("/rider/{riderId}")
-    public ResponseEntity<List<Order>> getRiderOrders(@PathVariable Long riderId) {
-        return ResponseEntity.ok(orderService.getRiderOrders(riderId));
+    public ResponseEntity<List<OrderResponse>> getRiderOrders(
+            @PathVariable Long riderId,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(orderService.getRiderOrders(riderId, page, size));
     }
 }
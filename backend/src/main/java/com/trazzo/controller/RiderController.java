@@ -1,57 +1,82 @@
 package com.trazzo.controller;
 
+import com.trazzo.dto.request.RiderLocationRequest;
 import com.trazzo.model.Order;
 import com.trazzo.model.User;
-import com.trazzo.model.enums.OrderStatus;
 import com.trazzo.model.enums.RiderStatus;
-import com.trazzo.repository.OrderRepository;
+import com.trazzo.model.enums.UserRole;
+import com.trazzo.security.AuthenticatedUser;
+import com.trazzo.service.CurrentUserService;
+import com.trazzo.service.OrderService;
+import com.trazzo.service.RiderLocationIngestService;
 import com.trazzo.service.RiderService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.security.Principal;
+
 @RestController
 @RequestMapping("/api/rider")
 @RequiredArgsConstructor
 public class RiderController {
 
     private final RiderService riderService;
-    private final OrderRepository orderRepository;
+    private final OrderService orderService;
+    private final RiderLocationIngestService riderLocationIngestService;
+    private final CurrentUserService currentUserService;
 
     @PutMapping("/{riderId}/status")
     public ResponseEntity<User> updateStatus(
             @PathVariable Long riderId,
             @RequestParam RiderStatus status) {
+        currentUserService.requireSelf(riderId);
         User rider = riderService.updateRiderStatus(riderId, status);
         return ResponseEntity.ok(rider);
     }
 
+    /**
+     * GPS ping. Coalesced in memory and flushed in batches, so the response carries no body.
+     */
     @PutMapping("/{riderId}/location")
-    public ResponseEntity<User> updateLocation(
+    public ResponseEntity<Void> updateLocation(
             @PathVariable Long riderId,
             @RequestParam double latitude,
             @RequestParam double longitude) {
-        User rider = riderService.updateRiderLocation(riderId, latitude, longitude);
-        return ResponseEntity.ok(rider);
+        currentUserService.requireSelf(riderId);
+        riderLocationIngestService.ingest(riderId, latitude, longitude);
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * GPS ping over STOMP. The rider is the session user set at CONNECT.
+     */
+    @MessageMapping("/rider.location")
+    public void updateLocation(@Valid @Payload RiderLocationRequest request, Principal user) {
+        if (!(user instanceof Authentication auth) || !(auth.getPrincipal() instanceof AuthenticatedUser rider)
+                || rider.role() != UserRole.RIDER) {
+            throw new AccessDeniedException("Rider session required");
+        }
+        if (request.getRiderId() != null && !request.getRiderId().equals(rider.id())) {
+            throw new AccessDeniedException("Not allowed to act for another user");
+        }
+        riderLocationIngestService.ingest(rider.id(), request.getLatitude(), request.getLongitude());
     }
 
     @PostMapping("/orders/{orderId}/accept")
     public ResponseEntity<Order> acceptOrder(@PathVariable Long orderId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
-
-        order.setStatus(OrderStatus.IN_TRANSIT);
-        orderRepository.save(order);
-
-        return ResponseEntity.ok(order);
+        return ResponseEntity.ok(orderService.startDelivery(orderId));
     }
 
     @PostMapping("/orders/{orderId}/deliver")
-    public ResponseEntity<Order> markDelivered(@PathVariable Long orderId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
-        order.setStatus(OrderStatus.DELIVERED);
-        orderRepository.save(order);
-        return ResponseEntity.ok(order);
+    public ResponseEntity<Order> markDelivered(
+            @PathVariable Long orderId,
+            @RequestParam(required = false) String otp) {
+        return ResponseEntity.ok(orderService.confirmDelivery(orderId, otp));
     }
 }
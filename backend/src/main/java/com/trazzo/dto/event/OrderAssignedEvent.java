@@ -0,0 +1,32 @@
+package com.trazzo.dto.event;
+
+import com.trazzo.model.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Pushed on {@code /user/queue/orders} to the rider and the customer when a rider is assigned.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderAssignedEvent {
+    private Long orderId;
+    private OrderStatus status;
+    private Long businessId;
+    private String businessName;
+    private Double pickupLatitude;
+    private Double pickupLongitude;
+    private String deliveryAddress;
+    private Double deliveryLatitude;
+    private Double deliveryLongitude;
+    private BigDecimal totalAmount;
+    private Long riderId;
+    private String riderName;
+    private String riderPhone;
+}
@@ -0,0 +1,23 @@
+package com.trazzo.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RiderLocationRequest {
+
+    /** Optional; the rider is the session user, and a different id here is rejected. */
+    private Long riderId;
+
+    @NotNull
+    private Double latitude;
+
+    @NotNull
+    private Double longitude;
+}
@@ -0,0 +1,17 @@
+package com.trazzo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BusinessSearchResponse {
+    private List<UserResponse> businesses;
+    private String nextCursor; // Pass back as ?cursor= for the next page; null on the last page
+}
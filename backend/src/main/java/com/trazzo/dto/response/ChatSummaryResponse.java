@@ -0,0 +1,24 @@
+package com.trazzo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChatSummaryResponse {
+    private Long id;
+    private Long customerId;
+    private String customerName;
+    private String customerEmail;
+    private Long businessId;
+    private String businessName;
+    private LocalDateTime lastMessageTime;
+    private String lastMessage;
+    private Integer unreadCount; // Unread messages for the requesting user
+}
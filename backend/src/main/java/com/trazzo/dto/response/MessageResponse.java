@@ -0,0 +1,27 @@
+package com.trazzo.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.trazzo.model.enums.MessageType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MessageResponse {
+    private Long id;
+    private Long chatId;
+    private Long senderId;
+    private String senderName;
+    private String content;
+    private MessageType type;
+    private String metadata;
+    @JsonProperty("isRead")
+    private boolean isRead;
+    private LocalDateTime sentAt;
+}
@@ -0,0 +1,24 @@
+package com.trazzo.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderItemResponse {
+    @JsonIgnore
+    private Long orderId; // Grouping key when items are loaded for a page of orders
+    private Long id;
+    private String itemName;
+    private Integer quantity;
+    private BigDecimal unitPrice;
+    private BigDecimal subtotal;
+    private String notes;
+}
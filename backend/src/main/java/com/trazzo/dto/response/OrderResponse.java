@@ -0,0 +1,63 @@
+package com.trazzo.dto.response;
+
+import com.trazzo.model.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.locationtech.jts.geom.Point;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Order as listed to customers, businesses and riders: parties flattened to id and name,
+ * never the full user rows. Field names match what the mobile client already reads.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderResponse {
+    private Long id;
+    private Long customerId;
+    private String customerName;
+    private Long businessId;
+    private String businessName;
+    private Long riderId;
+    private String riderName;
+    private String riderPhone;
+    private Long chatId;
+    private OrderStatus status;
+    private BigDecimal totalAmount;
+    private String deliveryAddress;
+    private Point deliveryLocation;
+    private String paymentMethod;
+    private String paymentTransactionId;
+    private LocalDateTime createdAt;
+    private LocalDateTime confirmedAt;
+    private LocalDateTime deliveredAt;
+    /** A delivery code was issued, so marking the order delivered requires it. */
+    private boolean hasDeliveryCode;
+    /** Rider's last known position while the order is assigned or in transit; single-order reads only. */
+    private Double riderLatitude;
+    private Double riderLongitude;
+    @Builder.Default
+    private List<OrderItemResponse> items = new ArrayList<>();
+
+    /**
+     * JPQL constructor expression; items are loaded separately for the whole page.
+     */
+    public OrderResponse(Long id, Long customerId, String customerName, Long businessId, String businessName,
+            Long riderId, String riderName, String riderPhone, Long chatId, OrderStatus status,
+            BigDecimal totalAmount, String deliveryAddress, Point deliveryLocation, String paymentMethod,
+            String paymentTransactionId, LocalDateTime createdAt, LocalDateTime confirmedAt,
+            LocalDateTime deliveredAt, Boolean hasDeliveryCode) {
+        this(id, customerId, customerName, businessId, businessName, riderId, riderName, riderPhone, chatId,
+                status, totalAmount, deliveryAddress, deliveryLocation, paymentMethod, paymentTransactionId,
+                createdAt, confirmedAt, deliveredAt, Boolean.TRUE.equals(hasDeliveryCode), null, null,
+                new ArrayList<>());
+    }
+}
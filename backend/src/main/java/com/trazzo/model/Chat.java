@@ -35,4 +35,23 @@ public class Chat {
 
     @Column(name = "last_message_at")
     private LocalDateTime lastMessageAt;
+
+    // Inbox summary, maintained by ChatMessageJournal on message write
+    @Column(name = "last_message_preview", columnDefinition = "TEXT")
+    private String lastMessagePreview;
+
+    @Column(name = "customer_unread_count", nullable = false)
+    @Builder.Default
+    private Integer customerUnreadCount = 0;
+
+    @Column(name = "business_unread_count", nullable = false)
+    @Builder.Default
+    private Integer businessUnreadCount = 0;
+
+    // Read marks, set by ChatService#markRead; journaled messages sent before them arrive read
+    @Column(name = "customer_read_at")
+    private LocalDateTime customerReadAt;
+
+    @Column(name = "business_read_at")
+    private LocalDateTime businessReadAt;
 }
@@ -1,5 +1,6 @@
 package com.trazzo.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.trazzo.model.enums.OrderStatus;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -68,6 +69,8 @@ public class Order {
     @Column(name = "payment_transaction_id")
     private String paymentTransactionId;
 
+    // Readable by the customer only, through GET /api/orders/{orderId}/delivery-otp
+    @JsonIgnore
     @Column(name = "delivery_otp", length = 6)
     private String deliveryOtp;
 
@@ -3,6 +3,7 @@ package com.trazzo.model;
 import com.trazzo.model.enums.RiderStatus;
 import com.trazzo.model.enums.UserRole;
 import com.trazzo.model.enums.UserStatus;
+import com.trazzo.security.UserChangeListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -23,6 +24,7 @@ import java.util.List;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@EntityListeners(UserChangeListener.class)
 @com.fasterxml.jackson.annotation.JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 public class User implements UserDetails {
 
@@ -1,10 +1,15 @@
 package com.trazzo.repository;
 
+import com.trazzo.dto.response.ChatSummaryResponse;
 import com.trazzo.model.Chat;
 import com.trazzo.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,4 +23,55 @@ public interface ChatRepository extends JpaRepository<Chat, Long> {
     List<Chat> findByBusiness(User business);
 
     List<Chat> findByCustomerIdOrBusinessId(Long customerId, Long businessId);
+
+    /**
+     * Inbox of a user (either party), most recent activity first, in one query.
+     */
+    @Query("SELECT new com.trazzo.dto.response.ChatSummaryResponse(" +
+            "c.id, cu.id, cu.name, cu.email, b.id, COALESCE(b.businessName, b.name), " +
+            "c.lastMessageAt, c.lastMessagePreview, " +
+            "CASE WHEN cu.id = :userId THEN c.customerUnreadCount ELSE c.businessUnreadCount END) " +
+            "FROM Chat c JOIN c.customer cu JOIN c.business b " +
+            "WHERE cu.id = :userId OR b.id = :userId " +
+            "ORDER BY c.lastMessageAt DESC NULLS LAST, c.id DESC")
+    List<ChatSummaryResponse> findInbox(@Param("userId") Long userId);
+
+    /**
+     * Zero the reader's unread counter and move their read mark to {@code readAt}, so messages sent
+     * before it that are still in the chat journal are written as read. The other party's counter
+     * and mark are untouched.
+     */
+    @Modifying
+    @Query(value = "UPDATE chats SET " +
+            "customer_unread_count = CASE WHEN customer_id = :userId THEN 0 ELSE customer_unread_count END, " +
+            "business_unread_count = CASE WHEN business_id = :userId THEN 0 ELSE business_unread_count END, " +
+            "customer_read_at = CASE WHEN customer_id = :userId " +
+            "THEN GREATEST(COALESCE(customer_read_at, CAST(:readAt AS TIMESTAMP)), CAST(:readAt AS TIMESTAMP)) " +
+            "ELSE customer_read_at END, " +
+            "business_read_at = CASE WHEN business_id = :userId " +
+            "THEN GREATEST(COALESCE(business_read_at, CAST(:readAt AS TIMESTAMP)), CAST(:readAt AS TIMESTAMP)) " +
+            "ELSE business_read_at END " +
+            "WHERE id = :chatId AND (customer_id = :userId OR business_id = :userId)",
+            nativeQuery = true)
+    int resetUnread(@Param("chatId") Long chatId, @Param("userId") Long userId, @Param("readAt") LocalDateTime readAt);
+
+    /**
+     * The two parties of a chat, without loading either user entity.
+     */
+    @Query("SELECT c.id AS chatId, cu.id AS customerId, cu.name AS customerName, " +
+            "b.id AS businessId, b.name AS businessName " +
+            "FROM Chat c JOIN c.customer cu JOIN c.business b WHERE c.id = :chatId")
+    Optional<ChatParticipants> findParticipantsById(@Param("chatId") Long chatId);
+
+    interface ChatParticipants {
+        Long getChatId();
+
+        Long getCustomerId();
+
+        String getCustomerName();
+
+        Long getBusinessId();
+
+        String getBusinessName();
+    }
 }
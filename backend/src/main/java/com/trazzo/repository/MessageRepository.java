@@ -1,11 +1,18 @@
 package com.trazzo.repository;
 
+import com.trazzo.dto.response.MessageResponse;
 import com.trazzo.model.Chat;
 import com.trazzo.model.Message;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Long> {
@@ -15,4 +22,51 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     List<Message> findByChatIdOrderBySentAtAsc(Long chatId);
 
     long countByChatAndIsReadFalse(Chat chat);
+
+    String MESSAGE_PROJECTION = "SELECT new com.trazzo.dto.response.MessageResponse(" +
+            "m.id, m.chat.id, s.id, s.name, m.content, m.type, m.metadata, m.isRead, m.sentAt) " +
+            "FROM Message m JOIN m.sender s ";
+
+    /**
+     * Newest messages of a chat, newest first. Served from idx_messages_chat_sent_at_id.
+     */
+    @Query(MESSAGE_PROJECTION +
+            "WHERE m.chat.id = :chatId " +
+            "ORDER BY m.sentAt DESC, m.id DESC")
+    List<MessageResponse> findLatest(@Param("chatId") Long chatId, Pageable pageable);
+
+    /**
+     * Messages strictly older than the (sentAt, id) cursor, newest first. The tuple comparison is
+     * rendered as the SQL row value {@code (sent_at, id) < (?, ?)}, a single range on
+     * idx_messages_chat_sent_at_id; the equivalent OR form is not used as an index bound.
+     */
+    @Query(MESSAGE_PROJECTION +
+            "WHERE m.chat.id = :chatId " +
+            "AND (m.sentAt, m.id) < (:sentAt, :id) " +
+            "ORDER BY m.sentAt DESC, m.id DESC")
+    List<MessageResponse> findBefore(@Param("chatId") Long chatId,
+            @Param("sentAt") LocalDateTime sentAt,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    /**
+     * Messages strictly newer than the (sentAt, id) cursor, oldest first; row value range as in
+     * {@link #findBefore}.
+     */
+    @Query(MESSAGE_PROJECTION +
+            "WHERE m.chat.id = :chatId " +
+            "AND (m.sentAt, m.id) > (:sentAt, :id) " +
+            "ORDER BY m.sentAt ASC, m.id ASC")
+    List<MessageResponse> findAfter(@Param("chatId") Long chatId,
+            @Param("sentAt") LocalDateTime sentAt,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Message m SET m.isRead = true " +
+            "WHERE m.chat.id = :chatId AND m.sender.id <> :readerId AND m.isRead = false")
+    int markReadForReader(@Param("chatId") Long chatId, @Param("readerId") Long readerId);
+
+    @Query("SELECT m.sentAt FROM Message m WHERE m.id = :id AND m.chat.id = :chatId")
+    Optional<LocalDateTime> findSentAt(@Param("chatId") Long chatId, @Param("id") Long id);
 }
@@ -1,9 +1,23 @@
 package com.trazzo.repository;
 
+import com.trazzo.dto.response.OrderItemResponse;
 import com.trazzo.model.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    /**
+     * Items of a page of orders in one query.
+     */
+    @Query("SELECT new com.trazzo.dto.response.OrderItemResponse(" +
+            "i.order.id, i.id, i.itemName, i.quantity, i.unitPrice, i.subtotal, i.notes) " +
+            "FROM OrderItem i WHERE i.order.id IN :orderIds ORDER BY i.id")
+    List<OrderItemResponse> findResponsesByOrderIds(@Param("orderIds") Collection<Long> orderIds);
 }
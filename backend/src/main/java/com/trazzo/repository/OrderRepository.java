@@ -1,9 +1,15 @@
 package com.trazzo.repository;
 
+import com.trazzo.dto.response.OrderResponse;
 import com.trazzo.model.Order;
 import com.trazzo.model.User;
 import com.trazzo.model.enums.OrderStatus;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,21 +17,73 @@ import java.util.List;
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+    /** Flattened order row; rider is optional, so it is the only outer join. */
+    String ORDER_PROJECTION = "SELECT new com.trazzo.dto.response.OrderResponse(" +
+            "o.id, cu.id, cu.name, b.id, COALESCE(b.businessName, b.name), r.id, r.name, r.phone, " +
+            "o.chat.id, o.status, o.totalAmount, o.deliveryAddress, o.deliveryLocation, o.paymentMethod, " +
+            "o.paymentTransactionId, o.createdAt, o.confirmedAt, o.deliveredAt, " +
+            "CASE WHEN o.deliveryOtp IS NOT NULL THEN true ELSE false END) " +
+            "FROM Order o JOIN o.customer cu JOIN o.business b LEFT JOIN o.rider r ";
+
     List<Order> findByCustomerOrderByCreatedAtDesc(User customer);
 
     List<Order> findByBusinessOrderByCreatedAtDesc(User business);
 
     List<Order> findByRiderOrderByCreatedAtDesc(User rider);
 
-    List<Order> findByCustomerIdOrderByCreatedAtDesc(Long customerId);
+    @Query(ORDER_PROJECTION + "WHERE o.id = :id")
+    java.util.Optional<OrderResponse> findResponseById(@Param("id") Long id);
+
+    @Query(ORDER_PROJECTION + "WHERE cu.id = :customerId ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderResponse> findResponsesByCustomerId(@Param("customerId") Long customerId, Pageable pageable);
+
+    @Query(ORDER_PROJECTION + "WHERE b.id = :businessId ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderResponse> findResponsesByBusinessId(@Param("businessId") Long businessId, Pageable pageable);
+
+    @Query(ORDER_PROJECTION + "WHERE r.id = :riderId ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderResponse> findResponsesByRiderId(@Param("riderId") Long riderId, Pageable pageable);
+
+    interface OrderStatusCount {
+        OrderStatus getStatus();
 
-    List<Order> findByBusinessIdOrderByCreatedAtDesc(Long businessId);
+        long getTotal();
+    }
 
-    List<Order> findByRiderIdOrderByCreatedAtDesc(Long riderId);
+    @Query("SELECT o.status AS status, COUNT(o) AS total FROM Order o GROUP BY o.status")
+    List<OrderStatusCount> countByStatus();
 
     List<Order> findByStatus(OrderStatus status);
 
     List<Order> findByStatusIn(List<OrderStatus> statuses);
 
+    /**
+     * Orders waiting for a rider, oldest first, with the business (pickup location) fetched.
+     */
+    @Query("SELECT o FROM Order o JOIN FETCH o.business " +
+            "WHERE o.status = :status AND o.rider IS NULL " +
+            "ORDER BY o.createdAt, o.id")
+    List<Order> findUnassignedWithBusiness(@Param("status") OrderStatus status, Pageable pageable);
+
+    /**
+     * Lock up to {@code limit} paid orders still waiting for a rider, oldest first, and return their
+     * ids. Only the order rows are locked; rows already locked by another dispatch window are
+     * skipped, so windows running on several instances split the backlog instead of sharing it.
+     */
+    @Query(value = "SELECT o.id FROM orders o " +
+            "WHERE o.status = 'PAYMENT_CONFIRMED' AND o.rider_id IS NULL " +
+            "ORDER BY o.created_at, o.id LIMIT :limit FOR UPDATE OF o SKIP LOCKED",
+            nativeQuery = true)
+    List<Long> lockUnassignedPaidOrderIds(@Param("limit") int limit);
+
+    @Query("SELECT o FROM Order o JOIN FETCH o.business WHERE o.id IN :ids ORDER BY o.createdAt, o.id")
+    List<Order> findWithBusinessByIdIn(@Param("ids") List<Long> ids);
+
+    /**
+     * Row-locked load, so two workers handed the same order id assign it only once.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o JOIN FETCH o.business WHERE o.id = :id")
+    java.util.Optional<Order> findByIdForUpdate(@Param("id") Long id);
+
     java.util.Optional<Order> findByChatIdAndOfferMessageId(Long chatId, Long offerMessageId);
 }
@@ -4,12 +4,18 @@ import com.trazzo.model.User;
 import com.trazzo.model.enums.RiderStatus;
 import com.trazzo.model.enums.UserRole;
 import org.locationtech.jts.geom.Point;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Repository
@@ -32,40 +38,123 @@ public interface UserRepository extends JpaRepository<User, Long> {
          */
         List<User> findByRoleAndRiderStatus(UserRole role, RiderStatus riderStatus);
 
+        interface RiderStatusCount {
+                RiderStatus getStatus();
+
+                long getTotal();
+        }
+
+        @Query("SELECT u.riderStatus AS status, COUNT(u) AS total FROM User u " +
+                        "WHERE u.role = 'RIDER' AND u.riderStatus IS NOT NULL GROUP BY u.riderStatus")
+        List<RiderStatusCount> countRidersByStatus();
+
         /**
-         * Find businesses within a given distance (in meters).
-         * Uses native SQL with PostGIS ST_DWithin with geography casting.
-         * ST_DWithin is more efficient than ST_Distance for proximity queries.
-         * Using CAST syntax instead of :: to avoid Hibernate parameter parsing issues.
+         * Ids of riders in the given status, without loading the entities. Used to pick claim candidates.
          */
-        @Query(value = "SELECT u.* FROM users u " +
+        @Query("SELECT u.id FROM User u WHERE u.role = 'RIDER' AND u.riderStatus = :status ORDER BY u.id")
+        List<Long> findRiderIdsByStatus(@Param("status") RiderStatus status, Pageable pageable);
+
+        /**
+         * Atomically claim an AVAILABLE rider. Returns 1 if this caller won the rider, 0 if another
+         * transaction claimed it first or the rider went offline. SKIP LOCKED makes a row that is
+         * mid-claim elsewhere count as lost instead of blocking, so concurrent assignments fan out
+         * over different candidates rather than queueing on one row.
+         */
+        @Modifying
+        @Query(value = "UPDATE users SET rider_status = 'BUSY', updated_at = CURRENT_TIMESTAMP " +
+                        "WHERE id = (SELECT id FROM users WHERE id = :riderId AND role = 'RIDER' " +
+                        "AND rider_status = 'AVAILABLE' FOR UPDATE SKIP LOCKED)",
+                nativeQuery = true)
+        int claimAvailableRider(@Param("riderId") Long riderId);
+
+        /**
+         * Committed rider status, without loading the entity. Used to tell a lost claim on a rider
+         * that is mid-claim elsewhere from one on a rider that is no longer AVAILABLE.
+         */
+        @Query("SELECT u.riderStatus FROM User u WHERE u.id = :riderId")
+        Optional<RiderStatus> findRiderStatusById(@Param("riderId") Long riderId);
+
+        /**
+         * Replace the stored hash (BCrypt strength upgrade on login); bypasses entity listeners.
+         */
+        @Transactional
+        @Modifying
+        @Query("UPDATE User u SET u.passwordHash = :passwordHash WHERE u.id = :id")
+        int updatePasswordHash(@Param("id") Long id, @Param("passwordHash") String passwordHash);
+
+        /**
+         * One hit of {@link #searchNearbyBusinesses}: business id and its distance from the search point.
+         */
+        interface NearbyBusinessHit {
+                Long getId();
+
+                Double getDistanceMeters();
+        }
+
+        /**
+         * Businesses within a given distance (in meters), nearest first, one page at a time.
+         * Ordered by the KNN operator {@code <->} on geography, which walks idx_users_business_geog
+         * (V10) in distance order, so a page costs roughly {@code limit} index probes however many
+         * businesses are in range. The page after {@code (afterDistance, afterId)} is the keyset cursor;
+         * pass nulls for the first page. {@code category} is optional.
+         */
+        @Query(value = "SELECT u.id AS id, " +
+                        "CAST(u.location AS geography) <-> CAST(ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326) AS geography) AS \"distanceMeters\" " +
+                        "FROM users u " +
                         "WHERE u.role = 'BUSINESS' " +
                         "AND u.location IS NOT NULL " +
+                        "AND (CAST(:category AS VARCHAR) IS NULL OR u.category = CAST(:category AS VARCHAR)) " +
                         "AND ST_DWithin(CAST(u.location AS geography), CAST(ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326) AS geography), :distanceMeters) " +
-                        "ORDER BY ST_Distance(CAST(u.location AS geography), CAST(ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326) AS geography))",
+                        "AND (CAST(:afterDistance AS DOUBLE PRECISION) IS NULL " +
+                        "OR CAST(u.location AS geography) <-> CAST(ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326) AS geography) > CAST(:afterDistance AS DOUBLE PRECISION) " +
+                        "OR (CAST(u.location AS geography) <-> CAST(ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326) AS geography) = CAST(:afterDistance AS DOUBLE PRECISION) " +
+                        "AND u.id > CAST(:afterId AS BIGINT))) " +
+                        "ORDER BY CAST(u.location AS geography) <-> CAST(ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326) AS geography), u.id " +
+                        "LIMIT :limit",
                 nativeQuery = true)
-        List<User> findNearbyBusinessesNative(
+        List<NearbyBusinessHit> searchNearbyBusinesses(
                         @Param("latitude") double latitude,
                         @Param("longitude") double longitude,
-                        @Param("distanceMeters") double distanceMeters);
+                        @Param("distanceMeters") double distanceMeters,
+                        @Param("category") String category,
+                        @Param("afterDistance") Double afterDistance,
+                        @Param("afterId") Long afterId,
+                        @Param("limit") int limit);
 
         /**
-         * Find nearest available rider within distance.
+         * Users with the given ids, in the order of {@code ids}; ids with no row are skipped.
          */
-        @Query("SELECT u FROM User u WHERE u.role = 'RIDER' " +
-                        "AND u.riderStatus = 'AVAILABLE' " +
-                        "AND u.currentLocation IS NOT NULL " +
-                        "AND distance(u.currentLocation, :point) < :distance " +
-                        "ORDER BY distance(u.currentLocation, :point)")
-        List<User> findNearestAvailableRiderList(
-                        @Param("point") Point point,
-                        @Param("distance") double distance);
-
-        default Optional<User> findNearestAvailableRider(Point point, double distance) {
-                List<User> riders = findNearestAvailableRiderList(point, distance);
-                return riders.isEmpty() ? Optional.empty() : Optional.of(riders.get(0));
+        default List<User> findAllByIdInOrder(List<Long> ids) {
+                Map<Long, User> byId = new HashMap<>();
+                for (User user : findAllById(ids)) {
+                        byId.put(user.getId(), user);
+                }
+                List<User> ordered = new ArrayList<>(ids.size());
+                for (Long id : ids) {
+                        User user = byId.get(id);
+                        if (user != null) {
+                                ordered.add(user);
+                        }
+                }
+                return ordered;
         }
 
+        /**
+         * Businesses whose location falls in a lat/lng box, capped at {@code limit}. Plain geometry
+         * bounding-box test on idx_users_location; used as a fallback when the geography search fails.
+         */
+        @Query(value = "SELECT u.* FROM users u " +
+                        "WHERE u.role = 'BUSINESS' " +
+                        "AND u.location && ST_MakeEnvelope(:minLongitude, :minLatitude, :maxLongitude, :maxLatitude, 4326) " +
+                        "LIMIT :limit",
+                nativeQuery = true)
+        List<User> findBusinessesInBox(
+                        @Param("minLatitude") double minLatitude,
+                        @Param("minLongitude") double minLongitude,
+                        @Param("maxLatitude") double maxLatitude,
+                        @Param("maxLongitude") double maxLongitude,
+                        @Param("limit") int limit);
+
         /**
          * Find available riders within distance.
          */
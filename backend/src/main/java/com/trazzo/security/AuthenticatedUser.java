@@ -0,0 +1,62 @@
+package com.trazzo.security;
+
+import com.trazzo.model.User;
+import com.trazzo.model.enums.UserRole;
+import com.trazzo.model.enums.UserStatus;
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * Lightweight security principal built from access-token claims, so authenticated requests
+ * need no user lookup. {@link #getName()} is the email, matching {@code Authentication.getName()}
+ * as used by the controllers.
+ */
+public record AuthenticatedUser(Long id, String email, UserRole role, UserStatus status) implements Principal {
+
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_STATUS = "status";
+
+    public static AuthenticatedUser from(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getRole(), user.getStatus());
+    }
+
+    /**
+     * Principal from token claims, or null for tokens issued without the id/role claims.
+     */
+    public static AuthenticatedUser fromClaims(Claims claims) {
+        Number id = claims.get(CLAIM_USER_ID, Number.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        if (id == null || role == null) {
+            return null;
+        }
+        String status = claims.get(CLAIM_STATUS, String.class);
+        return new AuthenticatedUser(
+                id.longValue(),
+                claims.getSubject(),
+                UserRole.valueOf(role),
+                status != null ? UserStatus.valueOf(status) : UserStatus.ACTIVE);
+    }
+
+    /**
+     * Only ACTIVE accounts may use an access token. The status is the one the token was issued with
+     * (or the stored one for tokens without claims); a later suspension takes effect at the next
+     * refresh, which re-reads it.
+     */
+    public boolean isActive() {
+        return status == UserStatus.ACTIVE;
+    }
+
+    public List<GrantedAuthority> authorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -1,6 +1,10 @@
 package com.trazzo.security;
 
 import com.trazzo.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,7 +13,6 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -22,6 +25,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserRepository userRepository;
+    private final UserPrincipalCache userPrincipalCache;
+    private final MeterRegistry meterRegistry;
 
     @Override
     protected void doFilterInternal(
@@ -38,17 +43,48 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        userEmail = jwtService.extractUsername(jwt);
+        // Token verification and principal resolution only; the rest of the chain is not timed
+        Timer.Sample sample = Timer.start(meterRegistry);
+        final Claims claims;
+        try {
+            // One parse verifies signature and expiry; no second pass to check validity
+            claims = jwtService.parseClaims(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            sample.stop(meterRegistry.timer("trazzo.auth.jwt", "principal", "rejected"));
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (JwtService.isRefreshToken(claims)) {
+            // Refresh tokens are only good at /api/auth/refresh
+            sample.stop(meterRegistry.timer("trazzo.auth.jwt", "principal", "rejected"));
+            filterChain.doFilter(request, response);
+            return;
+        }
+        userEmail = claims.getSubject();
 
         if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userRepository.findByEmail(userEmail)
-                    .orElse(null);
+            AuthenticatedUser principal = AuthenticatedUser.fromClaims(claims);
+            String source = "claims";
+            if (principal == null) {
+                // Token minted before id/role claims existed
+                principal = userPrincipalCache.get(userEmail,
+                        email -> this.userRepository.findByEmail(email).map(AuthenticatedUser::from).orElse(null));
+                source = "cache";
+            }
+            if (principal == null) {
+                source = "unknown_user";
+            } else if (!principal.isActive()) {
+                // Suspended or deactivated account: the request goes on unauthenticated
+                source = "inactive";
+                principal = null;
+            }
+            sample.stop(meterRegistry.timer("trazzo.auth.jwt", "principal", source));
 
-            if (userDetails != null && jwtService.isTokenValid(jwt, userDetails)) {
+            if (principal != null) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
+                        principal,
                         null,
-                        userDetails.getAuthorities());
+                        principal.authorities());
                 authToken.setDetails(
                         new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
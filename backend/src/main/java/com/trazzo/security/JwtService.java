@@ -1,9 +1,12 @@
 package com.trazzo.security;
 
+import com.trazzo.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -17,6 +20,10 @@ import java.util.function.Function;
 @Service
 public class JwtService {
 
+    public static final String CLAIM_TOKEN_TYPE = "typ";
+    public static final String CLAIM_FAMILY = "fam";
+    private static final String REFRESH_TOKEN_TYPE = "refresh";
+
     @Value("${jwt.secret}")
     private String secretKey;
 
@@ -26,6 +33,25 @@ public class JwtService {
     @Value("${jwt.refresh-token-expiration}")
     private long refreshTokenExpiration;
 
+    // Decoding the secret and building the parser are not free; do it once
+    private SecretKey signInKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
+        signInKey = Keys.hmacShaKeyFor(keyBytes);
+        parser = Jwts.parser().verifyWith(signInKey).build();
+    }
+
+    /**
+     * Verify signature and expiry and return the claims in a single parse.
+     * Throws {@link io.jsonwebtoken.JwtException} for an invalid or expired token.
+     */
+    public Claims parseClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -39,12 +65,49 @@ public class JwtService {
         return generateAccessToken(new HashMap<>(), userDetails);
     }
 
+    /**
+     * Access token carrying user id, role and status, so requests can be authorized from the
+     * token alone (see {@link AuthenticatedUser#fromClaims}).
+     */
+    public String generateAccessToken(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(AuthenticatedUser.CLAIM_USER_ID, user.getId());
+        claims.put(AuthenticatedUser.CLAIM_ROLE, user.getRole().name());
+        claims.put(AuthenticatedUser.CLAIM_STATUS, user.getStatus().name());
+        return generateAccessToken(claims, user);
+    }
+
     public String generateAccessToken(Map<String, Object> extraClaims, UserDetails userDetails) {
         return buildToken(extraClaims, userDetails, accessTokenExpiration);
     }
 
-    public String generateRefreshToken(UserDetails userDetails) {
-        return buildToken(new HashMap<>(), userDetails, refreshTokenExpiration);
+    /**
+     * Refresh token for one rotation step of a token family (see {@link RefreshTokenStore}). It
+     * carries the user id so a refresh needs no lookup by email, and a type claim so it is never
+     * accepted as an access token.
+     */
+    public String generateRefreshToken(User user, String familyId, String tokenId) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_TOKEN_TYPE, REFRESH_TOKEN_TYPE);
+        claims.put(CLAIM_FAMILY, familyId);
+        claims.put(AuthenticatedUser.CLAIM_USER_ID, user.getId());
+        return Jwts
+                .builder()
+                .claims(claims)
+                .id(tokenId)
+                .subject(user.getUsername())
+                .issuedAt(new Date(System.currentTimeMillis()))
+                .expiration(new Date(System.currentTimeMillis() + refreshTokenExpiration))
+                .signWith(getSignInKey())
+                .compact();
+    }
+
+    public static boolean isRefreshToken(Claims claims) {
+        return REFRESH_TOKEN_TYPE.equals(claims.get(CLAIM_TOKEN_TYPE, String.class));
+    }
+
+    public long getRefreshTokenExpiration() {
+        return refreshTokenExpiration;
     }
 
     private String buildToken(
@@ -75,16 +138,10 @@ public class JwtService {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parser()
-                .verifyWith(getSignInKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parseClaims(token);
     }
 
     private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signInKey;
     }
 }
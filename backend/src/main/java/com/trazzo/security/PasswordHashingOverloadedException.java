@@ -0,0 +1,19 @@
+package com.trazzo.security;
+
+import lombok.Getter;
+
+/**
+ * The password hashing queue is full; the client should retry after {@link #getRetryAfterSeconds()}.
+ */
+@Getter
+public class PasswordHashingOverloadedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingOverloadedException(long retryAfterSeconds) {
+        super("Too many concurrent logins, retry in " + retryAfterSeconds + "s");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
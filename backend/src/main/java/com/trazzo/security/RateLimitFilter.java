@@ -0,0 +1,66 @@
+package com.trazzo.security;
+
+import com.trazzo.config.RateLimitProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Per-route token buckets for REST calls, keyed by user once {@link JwtAuthenticationFilter} has
+ * run and by client address otherwise. Behind a proxy the client address is the forwarded one only
+ * when the deployment enables {@code server.forward-headers-strategy} and lists the proxy in
+ * {@code server.tomcat.remoteip.internal-proxies}; otherwise anonymous callers share the proxy's
+ * bucket. Over-limit requests get 429 with Retry-After and never reach a controller.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final RateLimitProperties properties;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        RateLimitProperties.Limit limit = rateLimiter.match(properties.getRoutes(), path, properties.getDefaultLimit());
+        if (limit == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long waitMillis = rateLimiter.tryAcquire(limit, caller(request), "http");
+        if (waitMillis > 0) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (waitMillis + 999) / 1000)));
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private String caller(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof AuthenticatedUser principal) {
+            return "u:" + principal.id();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,134 @@
+package com.trazzo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.trazzo.config.RateLimitProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Token buckets per route and caller (user id, or client address when anonymous). Each instance
+ * keeps its own bucket per key as a fast path: a caller it has already drained is refused without a
+ * Redis call, which is what keeps a flood from one client off Redis. Requests that pass it are
+ * checked against the shared bucket in Redis, so the limit holds across instances. If Redis is
+ * unreachable the local bucket alone decides.
+ */
+@Slf4j
+@Component
+public class RateLimiter {
+
+    private static final String KEY_PREFIX = "trazzo:rl:";
+
+    /*
+     * KEYS[1] bucket; ARGV[1] capacity, ARGV[2] tokens per ms.
+     * Returns 0 when a token was taken, otherwise ms until the next token. Uses the Redis clock so
+     * all instances refill against the same time.
+     */
+    private static final RedisScript<Long> TAKE = new DefaultRedisScript<>(
+            "local capacity = tonumber(ARGV[1]) " +
+            "local rate = tonumber(ARGV[2]) " +
+            "local t = redis.call('TIME') " +
+            "local now = t[1] * 1000 + math.floor(t[2] / 1000) " +
+            "local b = redis.call('HMGET', KEYS[1], 'tokens', 'ts') " +
+            "local tokens = tonumber(b[1]) or capacity " +
+            "local ts = tonumber(b[2]) or now " +
+            "tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate) " +
+            "local wait = 0 " +
+            "if tokens >= 1 then tokens = tokens - 1 else wait = math.ceil((1 - tokens) / rate) end " +
+            "redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', now) " +
+            "redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / rate) + 1000) " +
+            "return wait", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, LocalBucket> localBuckets;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public RateLimiter(StringRedisTemplate redisTemplate, MeterRegistry meterRegistry, RateLimitProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.localBuckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxLocalBuckets())
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+    }
+
+    /**
+     * First limit whose pattern matches the path, or {@code fallback} when none does.
+     */
+    public RateLimitProperties.Limit match(List<RateLimitProperties.Limit> limits, String path,
+                                           RateLimitProperties.Limit fallback) {
+        for (RateLimitProperties.Limit limit : limits) {
+            if (pathMatcher.match(limit.getPattern(), path)) {
+                return limit;
+            }
+        }
+        return fallback != null && pathMatcher.match(fallback.getPattern(), path) ? fallback : null;
+    }
+
+    /**
+     * Take one token for the caller. Returns 0 when allowed, otherwise milliseconds until a retry
+     * can succeed; rejections are counted as {@code trazzo.ratelimit.rejected}.
+     */
+    public long tryAcquire(RateLimitProperties.Limit limit, String caller, String transport) {
+        String key = KEY_PREFIX + limit.getPattern() + ":" + caller;
+        LocalBucket local = localBuckets.get(key, k -> new LocalBucket(limit.getCapacity(), limit.getRefillPerSecond()));
+        long wait = local.tryTake();
+        if (wait > 0) {
+            return reject(limit, transport, "local", wait);
+        }
+        try {
+            Long remote = redisTemplate.execute(TAKE, List.of(key),
+                    String.valueOf(limit.getCapacity()), String.valueOf(limit.getRefillPerSecond() / 1000));
+            if (remote != null && remote > 0) {
+                return reject(limit, transport, "global", remote);
+            }
+        } catch (Exception e) {
+            log.debug("Rate limit check in Redis failed, using local bucket only: {}", e.getMessage());
+        }
+        return 0;
+    }
+
+    private long reject(RateLimitProperties.Limit limit, String transport, String stage, long waitMillis) {
+        meterRegistry.counter("trazzo.ratelimit.rejected",
+                "transport", transport, "route", limit.getPattern(), "stage", stage).increment();
+        return waitMillis;
+    }
+
+    /**
+     * This instance's share of a bucket; refuses only what the shared bucket would refuse as well.
+     */
+    private static final class LocalBucket {
+
+        private final double capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long last;
+
+        LocalBucket(int capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.tokensPerNano = refillPerSecond / 1_000_000_000d;
+            this.tokens = capacity;
+            this.last = System.nanoTime();
+        }
+
+        synchronized long tryTake() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - last) * tokensPerNano);
+            last = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - tokens) / tokensPerNano / 1_000_000));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.trazzo.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Refresh token families in Redis. A login starts a family; each refresh replaces the family's
+ * current token id with a new one, so only the most recently issued refresh token is usable.
+ * Presenting an older token of a live family means it was copied, and the whole family is revoked.
+ * Keys expire with the refresh token lifetime, so abandoned sessions clean themselves up.
+ */
+@Component
+@RequiredArgsConstructor
+public class RefreshTokenStore {
+
+    private static final String KEY_PREFIX = "trazzo:auth:refresh:";
+
+    /*
+     * KEYS[1] family key; ARGV[1] presented token id, ARGV[2] next token id, ARGV[3] ttl in ms.
+     * Returns 1 when rotated, 0 when the family is unknown (expired or revoked), -1 on reuse.
+     */
+    private static final RedisScript<Long> ROTATE = new DefaultRedisScript<>(
+            "local current = redis.call('GET', KEYS[1]) " +
+            "if not current then return 0 end " +
+            "if current ~= ARGV[1] then redis.call('DEL', KEYS[1]) return -1 end " +
+            "redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3]) " +
+            "return 1", Long.class);
+
+    public enum Rotation {
+        ROTATED,
+        UNKNOWN_FAMILY,
+        REUSED
+    }
+
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * Start a family whose current token id is {@code tokenId}; returns the new family id.
+     */
+    public String startFamily(String tokenId, Duration ttl) {
+        String familyId = newId();
+        redisTemplate.opsForValue().set(KEY_PREFIX + familyId, tokenId, ttl);
+        return familyId;
+    }
+
+    /**
+     * Atomically move the family from {@code presentedTokenId} to {@code nextTokenId}.
+     */
+    public Rotation rotate(String familyId, String presentedTokenId, String nextTokenId, Duration ttl) {
+        Long result = redisTemplate.execute(ROTATE, List.of(KEY_PREFIX + familyId),
+                presentedTokenId, nextTokenId, String.valueOf(ttl.toMillis()));
+        if (result == null || result == 0) {
+            return Rotation.UNKNOWN_FAMILY;
+        }
+        return result > 0 ? Rotation.ROTATED : Rotation.REUSED;
+    }
+
+    public void revokeFamily(String familyId) {
+        redisTemplate.delete(KEY_PREFIX + familyId);
+    }
+
+    public String newId() {
+        return UUID.randomUUID().toString();
+    }
+}
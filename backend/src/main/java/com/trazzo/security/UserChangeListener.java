@@ -0,0 +1,24 @@
+package com.trazzo.security;
+
+import com.trazzo.model.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that drops a user from {@link UserPrincipalCache} when the row changes,
+ * so a status or role change takes effect on the next request.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserChangeListener {
+
+    private final UserPrincipalCache userPrincipalCache;
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(User user) {
+        userPrincipalCache.evict(user.getEmail());
+    }
+}
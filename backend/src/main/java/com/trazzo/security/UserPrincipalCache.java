@@ -0,0 +1,40 @@
+package com.trazzo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded, TTL-based cache of principals keyed by JWT subject (email), for access tokens issued
+ * before id/role claims were added; those still need one user lookup per TTL. Entries are evicted
+ * by {@link UserChangeListener} whenever a user row is updated through JPA (status, role, profile).
+ */
+@Component
+public class UserPrincipalCache {
+
+    private final Cache<String, AuthenticatedUser> cache;
+
+    public UserPrincipalCache(
+            @Value("${jwt.principal-cache.ttl-seconds:60}") long ttlSeconds,
+            @Value("${jwt.principal-cache.max-size:10000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    /**
+     * Cached principal for the subject, loading it on a miss. Unknown subjects are not cached.
+     */
+    public AuthenticatedUser get(String subject, Function<String, AuthenticatedUser> loader) {
+        return cache.get(subject, loader);
+    }
+
+    public void evict(String subject) {
+        cache.invalidate(subject);
+    }
+}
@@ -0,0 +1,136 @@
+package com.trazzo.service;
+
+import java.util.Arrays;
+
+/**
+ * Order-to-rider matching over a cost matrix ({@code cost[order][rider]}, e.g. metres).
+ * Both methods return, for each order row, the matched rider column or -1 when unmatched.
+ */
+public final class AssignmentMatcher {
+
+    private AssignmentMatcher() {
+    }
+
+    /**
+     * Per-order nearest-free-rider in row order. This is what sequential assignment at
+     * confirmation time amounts to.
+     */
+    public static int[] greedy(double[][] cost) {
+        int n = cost.length;
+        int m = n == 0 ? 0 : cost[0].length;
+        int[] result = new int[n];
+        boolean[] taken = new boolean[m];
+        for (int i = 0; i < n; i++) {
+            int best = -1;
+            for (int j = 0; j < m; j++) {
+                if (!taken[j] && (best < 0 || cost[i][j] < cost[i][best])) {
+                    best = j;
+                }
+            }
+            result[i] = best;
+            if (best >= 0) {
+                taken[best] = true;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Minimum total cost assignment (Hungarian algorithm, O(n^2 m)). Works on rectangular
+     * matrices; when there are more orders than riders some orders stay unmatched.
+     */
+    public static int[] optimal(double[][] cost) {
+        int n = cost.length;
+        int m = n == 0 ? 0 : cost[0].length;
+        if (n == 0 || m == 0) {
+            int[] none = new int[n];
+            Arrays.fill(none, -1);
+            return none;
+        }
+        if (n > m) {
+            // Solve the transpose so the row side is never larger than the column side
+            double[][] transposed = new double[m][n];
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < m; j++) {
+                    transposed[j][i] = cost[i][j];
+                }
+            }
+            int[] riderToOrder = optimal(transposed);
+            int[] result = new int[n];
+            Arrays.fill(result, -1);
+            for (int j = 0; j < m; j++) {
+                if (riderToOrder[j] >= 0) {
+                    result[riderToOrder[j]] = j;
+                }
+            }
+            return result;
+        }
+
+        // 1-indexed potentials; p[j] is the row matched to column j, way[] tracks augmenting paths
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] p = new int[m + 1];
+        int[] way = new int[m + 1];
+        double[] minv = new double[m + 1];
+        boolean[] used = new boolean[m + 1];
+
+        for (int i = 1; i <= n; i++) {
+            p[0] = i;
+            int j0 = 0;
+            Arrays.fill(minv, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+            do {
+                used[j0] = true;
+                int i0 = p[j0];
+                double delta = Double.POSITIVE_INFINITY;
+                int j1 = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (!used[j]) {
+                        double cur = cost[i0 - 1][j - 1] - u[i0] - v[j];
+                        if (cur < minv[j]) {
+                            minv[j] = cur;
+                            way[j] = j0;
+                        }
+                        if (minv[j] < delta) {
+                            delta = minv[j];
+                            j1 = j;
+                        }
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[p[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (p[j0] != 0);
+            do {
+                int j1 = way[j0];
+                p[j0] = p[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        int[] result = new int[n];
+        Arrays.fill(result, -1);
+        for (int j = 1; j <= m; j++) {
+            if (p[j] != 0) {
+                result[p[j] - 1] = j - 1;
+            }
+        }
+        return result;
+    }
+
+    public static double totalCost(double[][] cost, int[] assignment) {
+        double total = 0;
+        for (int i = 0; i < assignment.length; i++) {
+            if (assignment[i] >= 0) {
+                total += cost[i][assignment[i]];
+            }
+        }
+        return total;
+    }
+}
@@ -1,6 +1,7 @@
 package com.trazzo.service;
 
 import com.trazzo.dto.request.LoginRequest;
+import com.trazzo.dto.request.RefreshTokenRequest;
 import com.trazzo.dto.request.RegisterRequest;
 import com.trazzo.dto.response.AuthenticationResponse;
 import com.trazzo.model.User;
@@ -8,17 +9,29 @@ import com.trazzo.model.enums.RiderStatus;
 import com.trazzo.model.enums.UserRole;
 import com.trazzo.model.enums.UserStatus;
 import com.trazzo.repository.UserRepository;
+import com.trazzo.security.AuthenticatedUser;
 import com.trazzo.security.JwtService;
+import com.trazzo.security.PasswordHashingOverloadedException;
+import com.trazzo.security.RefreshTokenStore;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.geom.PrecisionModel;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class AuthenticationService {
@@ -27,6 +40,8 @@ public class AuthenticationService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final RefreshTokenStore refreshTokenStore;
+    private final MeterRegistry meterRegistry;
     private final GeometryFactory geometryFactory = new GeometryFactory(new PrecisionModel(), 4326);
 
     public AuthenticationResponse register(RegisterRequest request) {
@@ -70,36 +85,90 @@ public class AuthenticationService {
 
         User user = userRepository.save(userBuilder.build());
 
-        String accessToken = jwtService.generateAccessToken(user);
-        String refreshToken = jwtService.generateRefreshToken(user);
-
-        return AuthenticationResponse.builder()
-                .accessToken(accessToken)
-                .refreshToken(refreshToken)
-                .userId(user.getId())
-                .name(user.getName())
-                .email(user.getEmail())
-                .role(user.getRole())
-                .build();
+        return startSession(user);
     }
 
     public AuthenticationResponse login(LoginRequest request) {
         // Find user by email or phone
         User user = userRepository.findByEmailOrPhone(request.getEmailOrPhone(), request.getEmailOrPhone())
-                .orElseThrow(() -> new org.springframework.security.authentication.BadCredentialsException(
-                        "Invalid credentials"));
+                .orElseThrow(() -> new BadCredentialsException("Invalid credentials"));
 
         // Authenticate
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        user.getEmail(),
-                        request.getPassword()));
+        try {
+            authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            user.getEmail(),
+                            request.getPassword()));
+        } catch (InternalAuthenticationServiceException e) {
+            // Providers wrap whatever the user lookup throws; an overloaded hashing pool hit on
+            // that path must still answer 429, not 401
+            if (e.getCause() instanceof PasswordHashingOverloadedException overloaded) {
+                throw overloaded;
+            }
+            throw e;
+        }
+
+        return startSession(user);
+    }
+
+    /**
+     * Exchange a refresh token for a new access and refresh token pair. Only the latest token of
+     * a family is accepted; replaying an older one revokes the family, logging out every device
+     * holding a token from it. No password check happens here.
+     */
+    public AuthenticationResponse refresh(RefreshTokenRequest request) {
+        Claims claims = parseRefreshToken(request.getRefreshToken());
+        String familyId = claims.get(JwtService.CLAIM_FAMILY, String.class);
+        Number userId = claims.get(AuthenticatedUser.CLAIM_USER_ID, Number.class);
+        if (familyId == null || userId == null || claims.getId() == null) {
+            throw refreshRejected("invalid");
+        }
 
-        String accessToken = jwtService.generateAccessToken(user);
-        String refreshToken = jwtService.generateRefreshToken(user);
+        String nextTokenId = refreshTokenStore.newId();
+        RefreshTokenStore.Rotation rotation = refreshTokenStore.rotate(
+                familyId, claims.getId(), nextTokenId, refreshTtl());
+        if (rotation == RefreshTokenStore.Rotation.REUSED) {
+            log.warn("Refresh token reuse for user {}, family {} revoked", userId, familyId);
+            throw refreshRejected("reused");
+        }
+        if (rotation == RefreshTokenStore.Rotation.UNKNOWN_FAMILY) {
+            throw refreshRejected("revoked");
+        }
+
+        User user = userRepository.findById(userId.longValue()).orElse(null);
+        if (user == null || user.getStatus() != UserStatus.ACTIVE) {
+            refreshTokenStore.revokeFamily(familyId);
+            throw refreshRejected("inactive");
+        }
+        meterRegistry.counter("trazzo.auth.refresh", "outcome", "rotated").increment();
+        return buildResponse(user, jwtService.generateRefreshToken(user, familyId, nextTokenId));
+    }
 
+    /**
+     * Revoke the refresh token's family. Access tokens already issued stay valid until they expire.
+     */
+    public void logout(RefreshTokenRequest request) {
+        Claims claims = parseRefreshToken(request.getRefreshToken());
+        String familyId = claims.get(JwtService.CLAIM_FAMILY, String.class);
+        if (familyId != null) {
+            refreshTokenStore.revokeFamily(familyId);
+        }
+    }
+
+    public User getUserByEmail(String email) {
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    private AuthenticationResponse startSession(User user) {
+        String tokenId = refreshTokenStore.newId();
+        String familyId = refreshTokenStore.startFamily(tokenId, refreshTtl());
+        return buildResponse(user, jwtService.generateRefreshToken(user, familyId, tokenId));
+    }
+
+    private AuthenticationResponse buildResponse(User user, String refreshToken) {
         return AuthenticationResponse.builder()
-                .accessToken(accessToken)
+                .accessToken(jwtService.generateAccessToken(user))
                 .refreshToken(refreshToken)
                 .userId(user.getId())
                 .name(user.getName())
@@ -108,8 +177,25 @@ public class AuthenticationService {
                 .build();
     }
 
-    public User getUserByEmail(String email) {
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    private Claims parseRefreshToken(String token) {
+        Claims claims;
+        try {
+            claims = jwtService.parseClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw refreshRejected("invalid");
+        }
+        if (!JwtService.isRefreshToken(claims)) {
+            throw refreshRejected("invalid");
+        }
+        return claims;
+    }
+
+    private BadCredentialsException refreshRejected(String outcome) {
+        meterRegistry.counter("trazzo.auth.refresh", "outcome", outcome).increment();
+        return new BadCredentialsException("Invalid refresh token");
+    }
+
+    private Duration refreshTtl() {
+        return Duration.ofMillis(jwtService.getRefreshTokenExpiration());
     }
 }
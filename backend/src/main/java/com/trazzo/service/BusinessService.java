@@ -4,11 +4,14 @@ import com.trazzo.model.User;
 import com.trazzo.repository.UserRepository;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.PrecisionModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.Comparator;
 import java.util.List;
 
 @Slf4j
@@ -16,32 +19,83 @@ import java.util.List;
 @RequiredArgsConstructor
 public class BusinessService {
 
+    private static final double METERS_PER_DEGREE = 111320.0;
+
     private final UserRepository userRepository;
+    private final NearbyBusinessCache nearbyBusinessCache;
+    private final MeterRegistry meterRegistry;
 
     @Value("${trazzo.default-search-radius}")
     private double defaultSearchRadius;
 
+    @Value("${trazzo.search.default-limit:20}")
+    private int defaultLimit;
+
+    @Value("${trazzo.search.max-limit:100}")
+    private int maxLimit;
+
+    @Value("${trazzo.search.max-candidates:500}")
+    private int maxCandidates;
+
     private final GeometryFactory geometryFactory = new GeometryFactory(new PrecisionModel(), 4326);
 
-    public List<User> findNearbyBusinesses(double latitude, double longitude, Double radius) {
+    /**
+     * One page of a nearby search. {@code nextCursor} is null on the last page.
+     */
+    public record SearchPage(List<User> businesses, String nextCursor) {
+    }
+
+    public List<NearbyBusinessCache.BusinessSnapshot> findNearbyBusinesses(double latitude, double longitude, Double radius) {
+        double searchRadiusMeters = radius != null ? radius : defaultSearchRadius;
+        Timer.Sample sample = Timer.start(meterRegistry);
         try {
-            double searchRadiusMeters = radius != null ? radius : defaultSearchRadius;
-            
-            // Use native SQL query with PostGIS ST_Distance (more reliable)
-            List<User> businesses = userRepository.findNearbyBusinessesNative(latitude, longitude, searchRadiusMeters);
-            log.info("Found {} businesses within {} meters of ({}, {})", businesses.size(), searchRadiusMeters, latitude, longitude);
+            // Candidates per grid cell come from PostGIS at most once per cache TTL
+            List<NearbyBusinessCache.BusinessSnapshot> businesses = nearbyBusinessCache.findNearby(latitude, longitude, searchRadiusMeters);
+            log.debug("Found {} businesses within {} meters of ({}, {})", businesses.size(), searchRadiusMeters, latitude, longitude);
+            sample.stop(meterRegistry.timer("trazzo.business.nearby", "path", "cache"));
             return businesses;
         } catch (Exception e) {
-            // Fallback: return all businesses if query fails
-            // This prevents the app from getting stuck
-            log.warn("Error finding nearby businesses, falling back to all businesses: {}", e.getMessage());
-            List<User> allBusinesses = userRepository.findByRole(com.trazzo.model.enums.UserRole.BUSINESS)
-                    .stream()
-                    .filter(u -> u.getLocation() != null)
-                    .toList();
-            log.info("Fallback: Returning {} businesses", allBusinesses.size());
-            return allBusinesses;
+            // Fallback keeps the app usable, but never loads more than maxCandidates businesses
+            log.warn("Error finding nearby businesses, falling back to bounding box: {}", e.getMessage());
+            List<NearbyBusinessCache.BusinessSnapshot> businesses = findInBoundingBox(latitude, longitude, searchRadiusMeters);
+            sample.stop(meterRegistry.timer("trazzo.business.nearby", "path", "fallback"));
+            return businesses;
+        }
+    }
+
+    /**
+     * Nearest businesses first, optionally in one category, {@code limit} at a time.
+     * {@code cursor} is the {@code nextCursor} of the previous page, or null for the first page.
+     */
+    public SearchPage searchBusinesses(double latitude, double longitude, Double radius,
+            String category, Integer limit, String cursor) {
+        double searchRadiusMeters = radius != null ? radius : defaultSearchRadius;
+        int pageSize = limit != null ? Math.min(Math.max(1, limit), maxLimit) : defaultLimit;
+        String categoryFilter = category != null && !category.isBlank() ? category : null;
+
+        Double afterDistance = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = cursor.split(":", 2);
+            try {
+                afterDistance = Double.valueOf(parts[0]);
+                afterId = Long.valueOf(parts[1]);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Invalid cursor");
+            }
+        }
+
+        List<UserRepository.NearbyBusinessHit> hits = userRepository.searchNearbyBusinesses(
+                latitude, longitude, searchRadiusMeters, categoryFilter, afterDistance, afterId, pageSize);
+        List<User> businesses = userRepository.findAllByIdInOrder(
+                hits.stream().map(UserRepository.NearbyBusinessHit::getId).toList());
+
+        String nextCursor = null;
+        if (hits.size() == pageSize) {
+            UserRepository.NearbyBusinessHit last = hits.get(hits.size() - 1);
+            nextCursor = last.getDistanceMeters() + ":" + last.getId();
         }
+        return new SearchPage(businesses, nextCursor);
     }
 
     public User getBusinessById(Long id) {
@@ -50,6 +104,25 @@ public class BusinessService {
     }
 
     public User updateBusiness(User business) {
-        return userRepository.save(business);
+        User saved = userRepository.save(business);
+        // Name, category or location may have changed; any cell could hold the old copy
+        nearbyBusinessCache.invalidateAll();
+        return saved;
+    }
+
+    private List<NearbyBusinessCache.BusinessSnapshot> findInBoundingBox(double latitude, double longitude, double radiusMeters) {
+        double latDelta = radiusMeters / METERS_PER_DEGREE;
+        double lngDelta = radiusMeters / (METERS_PER_DEGREE * Math.max(Math.cos(Math.toRadians(latitude)), 0.01));
+        List<User> businesses = userRepository.findBusinessesInBox(
+                latitude - latDelta, longitude - lngDelta, latitude + latDelta, longitude + lngDelta, maxCandidates);
+        List<NearbyBusinessCache.BusinessSnapshot> nearby = businesses.stream()
+                .map(NearbyBusinessCache.BusinessSnapshot::of)
+                .filter(b -> RiderLocationIndex.distanceMeters(latitude, longitude,
+                        b.latitude(), b.longitude()) <= radiusMeters)
+                .sorted(Comparator.comparingDouble(b -> RiderLocationIndex.distanceMeters(latitude, longitude,
+                        b.latitude(), b.longitude())))
+                .toList();
+        log.info("Fallback: Returning {} businesses", nearby.size());
+        return nearby;
     }
 }
@@ -0,0 +1,359 @@
+package com.trazzo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trazzo.dto.response.MessageResponse;
+import com.trazzo.model.enums.MessageType;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Write-behind persistence for chat messages. {@link #append} records the message in a Redis stream
+ * (the journal) and returns; it is safe to publish the message to subscribers as soon as that call
+ * succeeds. {@link #flush} drains the journal on a short interval through a consumer group and
+ * writes each batch of messages, together with the chat inbox columns, in a single statement,
+ * acknowledging entries only after it succeeds.
+ * <p>
+ * Entries read but not acknowledged (crash mid-flush, failed write) stay in the consumer's pending
+ * list and are replayed first after a restart. Entries left pending by another consumer for
+ * {@code trazzo.chat.claim-idle-ms} (instance gone, or renamed on redeploy) are claimed and replayed
+ * by whichever instance gets to them first. Inserts are idempotent on the preallocated id.
+ * When a batch is rejected, its rows are retried one by one; rows the database still rejects as
+ * invalid (constraint or type errors) are moved to a dead-letter stream and acknowledged, so one bad
+ * row cannot block the journal. Other failures (database unreachable) leave the batch pending.
+ * <p>
+ * Until a message is flushed it is also kept per chat in a Redis hash, which
+ * {@link ChatService#getChatMessages} merges into history so a sender's refetch sees their message.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChatMessageJournal {
+
+    static final String STREAM_KEY = "trazzo:chat:journal";
+    static final String DEAD_LETTER_KEY = "trazzo:chat:journal:dead";
+    private static final String UNFLUSHED_KEY_PREFIX = "trazzo:chat:unflushed:";
+    private static final String GROUP = "chat-writers";
+
+    private static final int PREVIEW_LENGTH = 140;
+
+    private static final String ROW_PLACEHOLDER = "(CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT), " +
+            "CAST(? AS TEXT), CAST(? AS VARCHAR), CAST(? AS JSONB), CAST(? AS TIMESTAMP))";
+
+    /*
+     * Insert the batch and fold only the rows actually inserted into the chat inbox columns
+     * (last message time and preview, unread count of the receiving party). Rows that already
+     * exist from an earlier partial flush are skipped by ON CONFLICT and so never counted twice.
+     * Rows sent at or before the receiving party's read mark (it marked the chat read while they
+     * were journaled) are inserted read and not counted. A row for an unknown chat finds no mark and
+     * still fails on the foreign key, so it is dead-lettered as before.
+     */
+    private static final String WRITE_PREFIX = "WITH v(id, chat_id, sender_id, content, type, metadata, sent_at) AS (VALUES ";
+    private static final String WRITE_SUFFIX = "), " +
+            "ins AS (INSERT INTO messages (id, chat_id, sender_id, content, type, metadata, is_read, sent_at) " +
+            "SELECT id, chat_id, sender_id, content, type, metadata, " +
+            "COALESCE(sent_at <= (SELECT CASE WHEN v.sender_id = rc.customer_id THEN rc.business_read_at " +
+            "ELSE rc.customer_read_at END FROM chats rc WHERE rc.id = v.chat_id), FALSE), sent_at FROM v " +
+            "ON CONFLICT (id) DO NOTHING RETURNING id, chat_id, sender_id, content, is_read, sent_at), " +
+            "agg AS (SELECT ins.chat_id, MAX(ins.sent_at) AS last_at, " +
+            "(ARRAY_AGG(LEFT(ins.content, " + PREVIEW_LENGTH + ") ORDER BY ins.sent_at DESC, ins.id DESC))[1] AS preview, " +
+            "COUNT(*) FILTER (WHERE ins.sender_id = c.business_id AND NOT ins.is_read) AS to_customer, " +
+            "COUNT(*) FILTER (WHERE ins.sender_id = c.customer_id AND NOT ins.is_read) AS to_business " +
+            "FROM ins JOIN chats c ON c.id = ins.chat_id GROUP BY ins.chat_id) " +
+            "UPDATE chats c SET " +
+            "last_message_preview = CASE WHEN c.last_message_at IS NULL OR c.last_message_at <= agg.last_at " +
+            "THEN agg.preview ELSE c.last_message_preview END, " +
+            "last_message_at = GREATEST(COALESCE(c.last_message_at, agg.last_at), agg.last_at), " +
+            "customer_unread_count = c.customer_unread_count + agg.to_customer, " +
+            "business_unread_count = c.business_unread_count + agg.to_business " +
+            "FROM agg WHERE c.id = agg.chat_id";
+
+    private final StringRedisTemplate redisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    /** Blank picks a random name; pending entries of a vanished consumer are claimed by the others. */
+    @Value("${trazzo.chat.journal-consumer:}")
+    private String consumerName;
+
+    @Value("${trazzo.chat.claim-idle-ms:30000}")
+    private long claimIdleMillis;
+
+    @Value("${trazzo.chat.flush-batch-size:500}")
+    private long flushBatchSize;
+
+    @Value("${trazzo.chat.unflushed-ttl-seconds:600}")
+    private long unflushedTtlSeconds;
+
+    private volatile boolean groupReady;
+    /** Start by replaying our own pending entries; set again whenever a flush fails or entries are claimed. */
+    private volatile boolean replayPending = true;
+    private long nextClaimCheckMillis;
+
+    public void append(MessageResponse message) {
+        Map<String, String> fields = new HashMap<>();
+        fields.put("id", message.getId().toString());
+        fields.put("chatId", message.getChatId().toString());
+        fields.put("senderId", message.getSenderId().toString());
+        fields.put("type", message.getType().name());
+        fields.put("content", message.getContent());
+        fields.put("sentAt", message.getSentAt().toString());
+        if (message.getMetadata() != null) {
+            fields.put("metadata", message.getMetadata());
+        }
+        String unflushedKey = UNFLUSHED_KEY_PREFIX + message.getChatId();
+        String json = toJson(message);
+        Duration ttl = Duration.ofSeconds(unflushedTtlSeconds);
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ops.opsForStream().add(StreamRecords.newRecord().in(STREAM_KEY).ofMap(fields));
+                ops.opsForHash().put(unflushedKey, message.getId().toString(), json);
+                ops.expire(unflushedKey, ttl);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Messages of the chat that are journaled but not yet in the database, in no particular order.
+     * Empty when Redis is unreachable.
+     */
+    public List<MessageResponse> unflushed(Long chatId) {
+        try {
+            List<Object> values = redisTemplate.opsForHash().values(UNFLUSHED_KEY_PREFIX + chatId);
+            List<MessageResponse> messages = new ArrayList<>(values.size());
+            for (Object value : values) {
+                messages.add(objectMapper.readValue((String) value, MessageResponse.class));
+            }
+            return messages;
+        } catch (Exception e) {
+            log.debug("Unflushed chat messages unavailable for {}: {}", chatId, e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * Write one message synchronously, bypassing the journal.
+     */
+    public void persistNow(MessageResponse message) {
+        write(Collections.singletonList(new Object[] {
+                message.getId(),
+                message.getChatId(),
+                message.getSenderId(),
+                message.getContent(),
+                message.getType().name(),
+                message.getMetadata(),
+                Timestamp.valueOf(message.getSentAt())
+        }));
+    }
+
+    @Scheduled(fixedDelayString = "${trazzo.chat.flush-interval-ms:200}")
+    public void flush() {
+        try {
+            ensureGroup();
+            claimIdleEntries();
+            // Pending entries of this consumer first (ReadOffset 0), then new ones (">")
+            ReadOffset offset = replayPending ? ReadOffset.from("0") : ReadOffset.lastConsumed();
+            @SuppressWarnings("unchecked") // generic varargs holding the single journal stream
+            List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream().read(
+                    Consumer.from(GROUP, consumerName),
+                    StreamReadOptions.empty().count(flushBatchSize),
+                    StreamOffset.create(STREAM_KEY, offset));
+            if (records == null || records.isEmpty()) {
+                replayPending = false;
+                return;
+            }
+            if (replayPending) {
+                log.info("Replaying {} journaled chat messages", records.size());
+            }
+
+            try {
+                persist(records);
+            } catch (Exception e) {
+                log.warn("Chat journal batch of {} rejected, writing rows one by one: {}", records.size(), e.getMessage());
+                persistOneByOne(records);
+            }
+
+            RecordId[] ids = records.stream().map(MapRecord::getId).toArray(RecordId[]::new);
+            redisTemplate.opsForStream().acknowledge(STREAM_KEY, GROUP, ids);
+            redisTemplate.opsForStream().delete(STREAM_KEY, ids);
+            forgetUnflushed(records);
+        } catch (Exception e) {
+            replayPending = true;
+            log.warn("Chat journal flush failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Take over entries other consumers read but have not acknowledged for {@code claimIdleMillis}.
+     * XCLAIM re-checks the idle time, so when several instances race for an entry only one gets it.
+     * Claimed entries join this consumer's pending list and the next read replays them.
+     */
+    private void claimIdleEntries() {
+        long now = System.currentTimeMillis();
+        if (now < nextClaimCheckMillis) {
+            return;
+        }
+        nextClaimCheckMillis = now + claimIdleMillis / 2;
+        Duration minIdle = Duration.ofMillis(claimIdleMillis);
+        PendingMessages pending = redisTemplate.opsForStream().pending(STREAM_KEY, GROUP, Range.unbounded(), flushBatchSize);
+        RecordId[] idle = pending.stream()
+                .filter(p -> !consumerName.equals(p.getConsumerName()))
+                .filter(p -> p.getElapsedTimeSinceLastDelivery().compareTo(minIdle) >= 0)
+                .map(PendingMessage::getId)
+                .toArray(RecordId[]::new);
+        if (idle.length == 0) {
+            return;
+        }
+        List<MapRecord<String, Object, Object>> claimed =
+                redisTemplate.opsForStream().claim(STREAM_KEY, GROUP, consumerName, minIdle, idle);
+        if (!claimed.isEmpty()) {
+            log.info("Claimed {} idle chat journal entries from other consumers", claimed.size());
+            replayPending = true;
+        }
+    }
+
+    private void persist(List<MapRecord<String, Object, Object>> records) {
+        List<Object[]> rows = new ArrayList<>(records.size());
+        for (MapRecord<String, Object, Object> record : records) {
+            rows.add(toRow(record));
+        }
+        write(rows);
+    }
+
+    /**
+     * Write each record on its own. Records the database rejects as invalid, or that cannot be
+     * decoded, are dead-lettered; any other failure propagates and the batch stays pending (rows
+     * already written are skipped on replay).
+     */
+    private void persistOneByOne(List<MapRecord<String, Object, Object>> records) {
+        for (MapRecord<String, Object, Object> record : records) {
+            try {
+                write(Collections.singletonList(toRow(record)));
+            } catch (DataIntegrityViolationException e) {
+                deadLetter(record, e);
+            } catch (DataAccessException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                deadLetter(record, e);
+            }
+        }
+    }
+
+    private void deadLetter(MapRecord<String, Object, Object> record, Exception cause) {
+        log.error("Dead-lettering chat journal entry {}: {}", record.getId(), cause.getMessage());
+        Map<Object, Object> fields = new HashMap<>(record.getValue());
+        fields.put("journalId", record.getId().getValue());
+        fields.put("error", String.valueOf(cause.getMessage()));
+        redisTemplate.opsForStream().add(StreamRecords.newRecord().in(DEAD_LETTER_KEY).ofMap(fields));
+        meterRegistry.counter("trazzo.chat.journal.dead_lettered").increment();
+    }
+
+    private void forgetUnflushed(List<MapRecord<String, Object, Object>> records) {
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                    for (MapRecord<String, Object, Object> record : records) {
+                        Map<Object, Object> f = record.getValue();
+                        ops.opsForHash().delete(UNFLUSHED_KEY_PREFIX + f.get("chatId"), f.get("id"));
+                    }
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            // Entries expire on their own; reads de-duplicate against the database by id
+            log.debug("Could not clear unflushed chat messages: {}", e.getMessage());
+        }
+    }
+
+    private static Object[] toRow(MapRecord<String, Object, Object> record) {
+        Map<Object, Object> f = record.getValue();
+        return new Object[] {
+                Long.valueOf((String) f.get("id")),
+                Long.valueOf((String) f.get("chatId")),
+                Long.valueOf((String) f.get("senderId")),
+                f.get("content"),
+                MessageType.valueOf((String) f.get("type")).name(),
+                f.get("metadata"),
+                Timestamp.valueOf(LocalDateTime.parse((String) f.get("sentAt")))
+        };
+    }
+
+    private String toJson(MessageResponse message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode chat message " + message.getId(), e);
+        }
+    }
+
+    /**
+     * One statement per batch, so the insert and the inbox update are atomic, and replaying a
+     * batch is a no-op for rows already written.
+     */
+    private void write(List<Object[]> rows) {
+        StringBuilder sql = new StringBuilder(WRITE_PREFIX);
+        Object[] args = new Object[rows.size() * 7];
+        for (int i = 0; i < rows.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDER);
+            System.arraycopy(rows.get(i), 0, args, i * 7, 7);
+        }
+        sql.append(WRITE_SUFFIX);
+        jdbcTemplate.update(sql.toString(), args);
+    }
+
+    private void ensureGroup() {
+        if (groupReady) {
+            return;
+        }
+        if (consumerName == null || consumerName.isBlank()) {
+            consumerName = "writer-" + UUID.randomUUID();
+        }
+        try {
+            redisTemplate.opsForStream().createGroup(STREAM_KEY, ReadOffset.from("0"), GROUP);
+        } catch (Exception e) {
+            log.debug("Chat journal consumer group already exists: {}", e.getMessage());
+        }
+        groupReady = true;
+    }
+}
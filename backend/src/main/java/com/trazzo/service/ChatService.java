@@ -1,5 +1,10 @@
 package com.trazzo.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trazzo.dto.response.ChatSummaryResponse;
+import com.trazzo.dto.response.MessageResponse;
 import com.trazzo.model.Chat;
 import com.trazzo.model.Message;
 import com.trazzo.model.User;
@@ -7,22 +12,54 @@ import com.trazzo.model.enums.MessageType;
 import com.trazzo.repository.ChatRepository;
 import com.trazzo.repository.MessageRepository;
 import com.trazzo.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class ChatService {
 
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+
+    private static final Comparator<MessageResponse> NEWEST_FIRST = Comparator
+            .comparing(MessageResponse::getSentAt)
+            .thenComparing(MessageResponse::getId)
+            .reversed();
+
     private final ChatRepository chatRepository;
     private final MessageRepository messageRepository;
     private final UserRepository userRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final WebSocketPublisher webSocketPublisher;
+    private final MessageIdAllocator messageIdAllocator;
+    private final ChatMessageJournal chatMessageJournal;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+
+    // Chat parties never change once a chat exists
+    private final Cache<Long, ChatRepository.ChatParticipants> participants = Caffeine.newBuilder()
+            .maximumSize(50_000)
+            .expireAfterAccess(Duration.ofHours(1))
+            .build();
 
     @Transactional
     public Chat getOrCreateChat(Long customerId, Long businessId) {
@@ -41,50 +78,165 @@ public class ChatService {
                 });
     }
 
-    @Transactional
-    public Message sendMessage(Long chatId, Long senderId, String content, MessageType type, String metadata) {
-        Chat chat = chatRepository.findById(chatId)
-                .orElseThrow(() -> new RuntimeException("Chat not found"));
+    /**
+     * Send a chat message. Plain messages are journaled ({@link ChatMessageJournal}) and published
+     * right away; the database write happens in the next journal flush. Offers are written
+     * synchronously because accepting one looks the message up by id straight after it arrives.
+     * If the journal is unreachable the message is written synchronously as well.
+     */
+    public MessageResponse sendMessage(Long chatId, Long senderId, String content, MessageType type, String metadata) {
+        ChatRepository.ChatParticipants chat = participants(chatId);
 
-        User sender = userRepository.findById(senderId)
-                .orElseThrow(() -> new RuntimeException("Sender not found"));
+        String senderName;
+        if (senderId.equals(chat.getCustomerId())) {
+            senderName = chat.getCustomerName();
+        } else if (senderId.equals(chat.getBusinessId())) {
+            senderName = chat.getBusinessName();
+        } else {
+            throw new RuntimeException("Sender is not part of this chat");
+        }
 
-        Message message = Message.builder()
-                .chat(chat)
-                .sender(sender)
+        MessageResponse message = MessageResponse.builder()
+                .id(messageIdAllocator.next())
+                .chatId(chatId)
+                .senderId(senderId)
+                .senderName(senderName)
                 .content(content)
                 .type(type != null ? type : MessageType.TEXT)
-                .metadata(metadata)
+                .metadata(normalizeMetadata(metadata))
+                .sentAt(LocalDateTime.now())
                 .build();
 
-        message = messageRepository.save(message);
-
-        // Update chat last message timestamp
-        chat.setLastMessageAt(LocalDateTime.now());
-        chatRepository.save(chat);
+        Timer.Sample persist = Timer.start(meterRegistry);
+        boolean journaled = false;
+        if (message.getType() != MessageType.ORDER_PROPOSAL) {
+            try {
+                chatMessageJournal.append(message);
+                journaled = true;
+            } catch (Exception e) {
+                log.warn("Chat journal unavailable, writing message {} directly: {}", message.getId(), e.getMessage());
+            }
+        }
+        if (!journaled) {
+            chatMessageJournal.persistNow(message);
+        }
+        persist.stop(meterRegistry.timer("trazzo.chat.persist", "mode", journaled ? "journal" : "direct"));
 
-        // Send via WebSocket to both customer and business
+        // Send via WebSocket to both customer and business, encoding the message once
+        Timer.Sample publish = Timer.start(meterRegistry);
+        byte[] payload = webSocketPublisher.encode(message);
         // Send to topic for the chat (both parties subscribe to this)
-        messagingTemplate.convertAndSend("/topic/chat/" + chatId, message);
-        
+        webSocketPublisher.send("/topic/chat/" + chatId, payload);
+
         // Also send individual notifications
-        messagingTemplate.convertAndSendToUser(
-                chat.getCustomer().getId().toString(),
-                "/queue/notifications",
-                message);
-        messagingTemplate.convertAndSendToUser(
-                chat.getBusiness().getId().toString(),
-                "/queue/notifications",
-                message);
+        webSocketPublisher.sendToUser(chat.getCustomerId().toString(), "/queue/notifications", payload);
+        webSocketPublisher.sendToUser(chat.getBusinessId().toString(), "/queue/notifications", payload);
+        publish.stop(meterRegistry.timer("trazzo.chat.publish"));
 
         return message;
     }
 
-    public List<Message> getChatMessages(Long chatId) {
-        return messageRepository.findByChatIdOrderBySentAtAsc(chatId);
+    /**
+     * One page of a chat's history in chronological order, using the message id as a keyset cursor.
+     * With neither cursor the newest page is returned; {@code beforeId} pages back through history
+     * and {@code afterId} fetches what arrived since the client's last message. Messages still in
+     * the journal are merged in, so a message is visible as soon as its send returns.
+     */
+    @Transactional(readOnly = true)
+    public List<MessageResponse> getChatMessages(Long chatId, Long beforeId, Long afterId, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        PageRequest page = PageRequest.of(0, pageSize);
+        List<MessageResponse> unflushed = chatMessageJournal.unflushed(chatId);
+
+        if (afterId != null) {
+            MessageResponse cursor = cursor(chatId, afterId, unflushed);
+            return merge(messageRepository.findAfter(chatId, cursor.getSentAt(), afterId, page),
+                    unflushed, m -> NEWEST_FIRST.compare(m, cursor) < 0, pageSize, NEWEST_FIRST.reversed());
+        }
+
+        List<MessageResponse> newestFirst;
+        if (beforeId != null) {
+            MessageResponse cursor = cursor(chatId, beforeId, unflushed);
+            newestFirst = merge(
+                    messageRepository.findBefore(chatId, cursor.getSentAt(), beforeId, page),
+                    unflushed, m -> NEWEST_FIRST.compare(m, cursor) > 0, pageSize, NEWEST_FIRST);
+        } else {
+            newestFirst = merge(messageRepository.findLatest(chatId, page), unflushed, m -> true, pageSize, NEWEST_FIRST);
+        }
+        List<MessageResponse> messages = new ArrayList<>(newestFirst);
+        Collections.reverse(messages);
+        return messages;
+    }
+
+    /**
+     * The cursor message's position, from the database or, if not flushed yet, the journal.
+     */
+    private MessageResponse cursor(Long chatId, Long messageId, List<MessageResponse> unflushed) {
+        return messageRepository.findSentAt(chatId, messageId)
+                .map(sentAt -> MessageResponse.builder().id(messageId).sentAt(sentAt).build())
+                .or(() -> unflushed.stream().filter(m -> m.getId().equals(messageId)).findFirst())
+                .orElseThrow(() -> new RuntimeException("Message not found"));
+    }
+
+    /**
+     * Database page plus the journaled messages in the same cursor range, de-duplicated by id,
+     * sorted and cut to the page size.
+     */
+    private static List<MessageResponse> merge(List<MessageResponse> stored, List<MessageResponse> unflushed,
+                                               Predicate<MessageResponse> inRange, int pageSize,
+                                               Comparator<MessageResponse> order) {
+        if (unflushed.isEmpty()) {
+            return stored;
+        }
+        Map<Long, MessageResponse> byId = new LinkedHashMap<>();
+        stored.forEach(m -> byId.put(m.getId(), m));
+        unflushed.stream().filter(inRange).forEach(m -> byId.putIfAbsent(m.getId(), m));
+        return byId.values().stream().sorted(order).limit(pageSize).toList();
+    }
+
+    /**
+     * Metadata must be a JSON document; it is stored re-serialized so a malformed value is refused
+     * here rather than failing the journal flush later. Blank metadata is dropped.
+     */
+    private String normalizeMetadata(String metadata) {
+        if (metadata == null || metadata.isBlank()) {
+            return null;
+        }
+        try {
+            JsonNode node = objectMapper.readTree(metadata);
+            return objectMapper.writeValueAsString(node);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Message metadata must be valid JSON");
+        }
+    }
+
+    /**
+     * Inbox of a user: every chat with its last message preview and the user's unread count,
+     * most recent first. Served from the materialized columns on {@code chats}.
+     */
+    @Transactional(readOnly = true)
+    public List<ChatSummaryResponse> getUserChats(Long userId) {
+        return chatRepository.findInbox(userId);
+    }
+
+    /**
+     * Mark everything the other party sent as read for {@code userId}, who must be a party to the chat.
+     * Messages still in {@link ChatMessageJournal} are covered by the read mark: they are written
+     * read and never counted as unread.
+     */
+    @Transactional
+    public void markRead(Long chatId, Long userId) {
+        ChatRepository.ChatParticipants chat = participants(chatId);
+        if (!userId.equals(chat.getCustomerId()) && !userId.equals(chat.getBusinessId())) {
+            throw new AccessDeniedException("Not a participant of this chat");
+        }
+        // Same clock as the journaled sentAt values the mark is compared with
+        chatRepository.resetUnread(chatId, userId, LocalDateTime.now());
+        messageRepository.markReadForReader(chatId, userId);
     }
 
-    public List<Chat> getUserChats(Long userId) {
-        return chatRepository.findByCustomerIdOrBusinessId(userId, userId);
+    private ChatRepository.ChatParticipants participants(Long chatId) {
+        return participants.get(chatId, id -> chatRepository.findParticipantsById(id)
+                .orElseThrow(() -> new RuntimeException("Chat not found")));
     }
 }
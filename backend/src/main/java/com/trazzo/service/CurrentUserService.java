@@ -3,7 +3,9 @@ package com.trazzo.service;
 import com.trazzo.model.User;
 import com.trazzo.model.enums.UserRole;
 import com.trazzo.repository.UserRepository;
+import com.trazzo.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
@@ -15,20 +17,45 @@ public class CurrentUserService {
 
     private final UserRepository userRepository;
 
-    public Optional<User> getCurrentUser() {
+    /**
+     * Principal resolved by the JWT filter from token claims. No database access.
+     */
+    public Optional<AuthenticatedUser> getCurrentPrincipal() {
         var auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null || !auth.isAuthenticated() || auth.getPrincipal() == null) {
+        if (auth == null || !auth.isAuthenticated() || !(auth.getPrincipal() instanceof AuthenticatedUser principal)) {
             return Optional.empty();
         }
-        String email = auth.getName();
-        return userRepository.findByEmail(email);
+        return Optional.of(principal);
+    }
+
+    /**
+     * Current user as an uninitialized entity reference: reading the id or linking it to another
+     * entity costs no SELECT; any other getter loads the row.
+     */
+    public Optional<User> getCurrentUser() {
+        return getCurrentPrincipal().map(p -> userRepository.getReferenceById(p.id()));
     }
 
     public User getCurrentUserOrThrow() {
         return getCurrentUser().orElseThrow(() -> new RuntimeException("User not authenticated"));
     }
 
+    /**
+     * Principal of the caller, who must be the user {@code userId}; for routes that name a user in
+     * the path.
+     */
+    public AuthenticatedUser requireSelf(Long userId) {
+        AuthenticatedUser principal = getCurrentPrincipal()
+                .orElseThrow(() -> new AccessDeniedException("User not authenticated"));
+        if (!principal.id().equals(userId)) {
+            throw new AccessDeniedException("Not allowed to act for another user");
+        }
+        return principal;
+    }
+
     public Optional<User> getCurrentCustomer() {
-        return getCurrentUser().filter(u -> u.getRole() == UserRole.CUSTOMER);
+        return getCurrentPrincipal()
+                .filter(p -> p.role() == UserRole.CUSTOMER)
+                .map(p -> userRepository.getReferenceById(p.id()));
     }
 }
@@ -0,0 +1,41 @@
+package com.trazzo.service;
+
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+/**
+ * How paid orders get a rider, from {@code trazzo.dispatch.mode}. Bound the Spring Boot way, so
+ * {@code batch}, {@code BATCH} and {@code Batch} are the same mode and unknown values fail startup.
+ * The nested conditions gate {@link RiderAssignmentWorker} and {@link RiderDispatchEngine}, so the
+ * beans and {@link RiderAssignmentService} always agree on the mode.
+ */
+public enum DispatchMode {
+
+    /** Each order is queued on payment and claims its nearest free rider. */
+    IMMEDIATE,
+    /** {@link RiderDispatchEngine} matches waiting orders to riders once per window. */
+    BATCH;
+
+    public static final String PROPERTY = "trazzo.dispatch.mode";
+
+    public static DispatchMode from(Environment environment) {
+        return Binder.get(environment).bind(PROPERTY, DispatchMode.class).orElse(IMMEDIATE);
+    }
+
+    static class Immediate implements Condition {
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            return from(context.getEnvironment()) == IMMEDIATE;
+        }
+    }
+
+    static class Batch implements Condition {
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            return from(context.getEnvironment()) == BATCH;
+        }
+    }
+}
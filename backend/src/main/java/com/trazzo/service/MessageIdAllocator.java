@@ -0,0 +1,43 @@
+package com.trazzo.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out message ids from blocks reserved on the {@code messages} id sequence, so a chat
+ * message gets its final id before it is written. The sequence steps by {@link #BLOCK_SIZE} (V11)
+ * and a value {@code v} reserves {@code [v, v + BLOCK_SIZE)}, the same pooled-lo convention
+ * Hibernate uses for {@code Message}, so one round trip covers a whole block.
+ */
+@Component
+@RequiredArgsConstructor
+public class MessageIdAllocator {
+
+    /** Must equal the sequence increment and the entity's allocationSize. */
+    static final int BLOCK_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // A lock rather than synchronized: the refill blocks on JDBC, which would pin a virtual thread
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long nextId;
+    private long blockEnd;
+
+    public long next() {
+        lock.lock();
+        try {
+            if (nextId >= blockEnd) {
+                Long start = jdbcTemplate.queryForObject("SELECT nextval('messages_id_seq')", Long.class);
+                nextId = start;
+                blockEnd = start + BLOCK_SIZE;
+            }
+            return nextId++;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.trazzo.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.trazzo.model.User;
+import com.trazzo.model.enums.UserRole;
+import com.trazzo.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.locationtech.jts.geom.Point;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Short-lived cache of nearby-business candidates per grid cell and radius bucket.
+ * <p>
+ * A cell is a fixed lat/lng square; its entry holds every business within the bucket radius of
+ * any point in the cell (queried once from the cell centre, widened by the centre-to-corner
+ * distance). A request inside the cell is then answered in memory: candidates are filtered to the
+ * requested radius and ordered by exact distance from the caller.
+ * <p>
+ * Entries hold immutable {@link BusinessSnapshot}s, never {@link User} entities, so a cached cell
+ * can be read from any request thread without touching a persistence context. Business profile
+ * changes invalidate the cache, but only in the JVM that handled the change; other instances keep
+ * serving their copy until it expires after {@code trazzo.nearby-cache.ttl-seconds}.
+ */
+@Component
+public class NearbyBusinessCache {
+
+    /** Cell edge in degrees (~1.1 km of latitude), same grid as {@link RiderLocationIndex}. */
+    private static final double CELL_SIZE_DEGREES = 0.01;
+    private static final double RADIUS_BUCKET_METERS = 1000.0;
+
+    record CellKey(long latCell, long lngCell, int radiusBucket) {
+    }
+
+    /**
+     * The fields of a business that a nearby listing shows, copied out of the entity at load time.
+     */
+    public record BusinessSnapshot(Long id, String name, String email, String phone, UserRole role,
+            String profileImageUrl, String businessName, String businessDescription, String category,
+            double latitude, double longitude) {
+
+        public static BusinessSnapshot of(User business) {
+            Point p = business.getLocation();
+            return new BusinessSnapshot(business.getId(), business.getName(), business.getEmail(),
+                    business.getPhone(), business.getRole(), business.getProfileImageUrl(),
+                    business.getBusinessName(), business.getBusinessDescription(), business.getCategory(),
+                    p.getY(), p.getX());
+        }
+    }
+
+    private record Ranked(BusinessSnapshot business, double distanceMeters) {
+    }
+
+    private final UserRepository userRepository;
+    private final Cache<CellKey, List<BusinessSnapshot>> cache;
+    private final int maxCandidates;
+
+    public NearbyBusinessCache(UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${trazzo.nearby-cache.ttl-seconds:30}") long ttlSeconds,
+            @Value("${trazzo.nearby-cache.max-size:5000}") long maxSize,
+            @Value("${trazzo.search.max-candidates:500}") int maxCandidates) {
+        this.userRepository = userRepository;
+        this.maxCandidates = maxCandidates;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        // trazzo.nearby.businesses cache.gets{result=hit|miss}, cache.size, cache.evictions
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "trazzo.nearby.businesses");
+    }
+
+    /**
+     * Businesses within {@code radiusMeters} of the point, nearest first.
+     */
+    public List<BusinessSnapshot> findNearby(double latitude, double longitude, double radiusMeters) {
+        CellKey key = new CellKey(
+                (long) Math.floor(latitude / CELL_SIZE_DEGREES),
+                (long) Math.floor(longitude / CELL_SIZE_DEGREES),
+                (int) Math.ceil(radiusMeters / RADIUS_BUCKET_METERS));
+        List<BusinessSnapshot> candidates = cache.get(key, this::load);
+
+        List<Ranked> ranked = new ArrayList<>();
+        for (BusinessSnapshot c : candidates) {
+            double d = RiderLocationIndex.distanceMeters(latitude, longitude, c.latitude(), c.longitude());
+            if (d <= radiusMeters) {
+                ranked.add(new Ranked(c, d));
+            }
+        }
+        ranked.sort(Comparator.comparingDouble(Ranked::distanceMeters));
+        return ranked.stream().map(Ranked::business).toList();
+    }
+
+    /**
+     * Drop every cell in this instance.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private List<BusinessSnapshot> load(CellKey key) {
+        double minLat = key.latCell() * CELL_SIZE_DEGREES;
+        double minLng = key.lngCell() * CELL_SIZE_DEGREES;
+        double centreLat = minLat + CELL_SIZE_DEGREES / 2;
+        double centreLng = minLng + CELL_SIZE_DEGREES / 2;
+        // Corner nearest the equator is the farthest from the centre
+        double cornerLat = Math.abs(minLat) < Math.abs(minLat + CELL_SIZE_DEGREES) ? minLat : minLat + CELL_SIZE_DEGREES;
+        double halfDiagonal = RiderLocationIndex.distanceMeters(centreLat, centreLng, cornerLat, minLng);
+        double searchRadius = key.radiusBucket() * RADIUS_BUCKET_METERS + halfDiagonal;
+
+        // Capped so a dense cell cannot make one load unbounded; the nearest candidates are kept
+        List<Long> ids = userRepository.searchNearbyBusinesses(
+                        centreLat, centreLng, searchRadius, null, null, null, maxCandidates)
+                .stream()
+                .map(UserRepository.NearbyBusinessHit::getId)
+                .toList();
+        return userRepository.findAllByIdInOrder(ids).stream()
+                .map(BusinessSnapshot::of)
+                .toList();
+    }
+}
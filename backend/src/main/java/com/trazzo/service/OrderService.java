@@ -2,6 +2,8 @@ package com.trazzo.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trazzo.dto.response.OrderItemResponse;
+import com.trazzo.dto.response.OrderResponse;
 import com.trazzo.model.Order;
 import com.trazzo.model.OrderItem;
 import com.trazzo.model.User;
@@ -11,6 +13,7 @@ import com.trazzo.model.enums.MessageType;
 import com.trazzo.model.enums.OrderStatus;
 import com.trazzo.repository.ChatRepository;
 import com.trazzo.repository.MessageRepository;
+import com.trazzo.repository.OrderItemRepository;
 import com.trazzo.repository.OrderRepository;
 import com.trazzo.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -19,13 +22,20 @@ import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.geom.PrecisionModel;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -33,12 +43,18 @@ public class OrderService {
 
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
     private final UserRepository userRepository;
     private final ChatRepository chatRepository;
     private final MessageRepository messageRepository;
     private final RiderAssignmentService riderAssignmentService;
     private final CurrentUserService currentUserService;
+    private final OtpService otpService;
+    private final OrderSnapshotCache orderSnapshotCache;
     private final SimpMessagingTemplate messagingTemplate;
     private final GeometryFactory geometryFactory = new GeometryFactory(new PrecisionModel(), 4326);
 
@@ -88,7 +104,8 @@ public class OrderService {
                 .build();
 
         order = orderRepository.save(order);
-        riderAssignmentService.assignRider(order);
+        orderSnapshotCache.refreshAfterCommit(order.getId());
+        riderAssignmentService.requestAssignment(order);
         return order;
     }
 
@@ -124,7 +141,9 @@ public class OrderService {
                 .deliveryLocation(deliveryLocation)
                 .build();
 
-        return orderRepository.save(order);
+        Order saved = orderRepository.save(order);
+        orderSnapshotCache.refreshAfterCommit(saved.getId());
+        return saved;
     }
 
     @Transactional
@@ -144,7 +163,9 @@ public class OrderService {
         order.calculateTotal();
         order.setStatus(OrderStatus.NEGOTIATING);
 
-        return orderRepository.save(order);
+        Order saved = orderRepository.save(order);
+        orderSnapshotCache.refreshAfterCommit(saved.getId());
+        return saved;
     }
 
     @Transactional
@@ -153,7 +174,9 @@ public class OrderService {
                 .orElseThrow(() -> new RuntimeException("Order not found"));
 
         order.setStatus(OrderStatus.AWAITING_PAYMENT);
-        return orderRepository.save(order);
+        Order saved = orderRepository.save(order);
+        orderSnapshotCache.refreshAfterCommit(saved.getId());
+        return saved;
     }
 
     @Transactional
@@ -167,34 +190,163 @@ public class OrderService {
         order.setConfirmedAt(LocalDateTime.now());
 
         orderRepository.save(order);
+        orderSnapshotCache.refreshAfterCommit(order.getId());
 
         // Automatically assign rider
-        riderAssignmentService.assignRider(order);
+        riderAssignmentService.requestAssignment(order);
 
         return order;
     }
 
+    /**
+     * Rider picked the order up. Issues the delivery code the customer hands over at the door, once:
+     * only the assigned rider can start the delivery, and a repeated call on an order already in
+     * transit returns it unchanged. The code is armed in Redis only after the order commits.
+     */
+    @Transactional
+    public Order startDelivery(Long orderId) {
+        Long riderId = currentUserService.getCurrentPrincipal()
+                .map(p -> p.id())
+                .orElseThrow(() -> new AccessDeniedException("User not authenticated"));
+        // Row lock, so two concurrent accepts cannot both issue a code
+        Order order = orderRepository.findByIdForUpdate(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+        if (order.getRider() == null || !order.getRider().getId().equals(riderId)) {
+            throw new AccessDeniedException("Not your order");
+        }
+        if (order.getStatus() == OrderStatus.IN_TRANSIT && order.getDeliveryOtp() != null) {
+            return order;
+        }
+        if (order.getStatus() != OrderStatus.RIDER_ASSIGNED) {
+            throw new RuntimeException("Order is not waiting for pickup");
+        }
+
+        String otp = otpService.generateOtp();
+        order.setDeliveryOtp(otp);
+        order.setOtpGeneratedAt(LocalDateTime.now());
+        order.setStatus(OrderStatus.IN_TRANSIT);
+        Order saved = orderRepository.save(order);
+        storeDeliveryOtpAfterCommit(orderId, otp);
+        orderSnapshotCache.refreshAfterCommit(saved.getId());
+        return saved;
+    }
+
+    /**
+     * If arming fails, the first verification finds no entry and re-arms from the order.
+     */
+    private void storeDeliveryOtpAfterCommit(Long orderId, String otp) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    otpService.storeDeliveryOtp(orderId, otp);
+                }
+            });
+        } else {
+            otpService.storeDeliveryOtp(orderId, otp);
+        }
+    }
+
+    /**
+     * Rider handed the order over; requires the customer's delivery code when one was issued.
+     */
+    @Transactional
+    public Order confirmDelivery(Long orderId, String otp) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+
+        if (order.getDeliveryOtp() != null) {
+            if (otp == null || otp.isBlank()) {
+                throw new RuntimeException("Delivery code is required");
+            }
+            OtpService.Verification verification = otpService.verifyDeliveryOtp(orderId, order.getDeliveryOtp(), otp);
+            if (verification == OtpService.Verification.LOCKED) {
+                throw new RuntimeException("Too many wrong delivery codes, try again later");
+            }
+            if (verification != OtpService.Verification.VERIFIED) {
+                throw new RuntimeException("Invalid delivery code");
+            }
+        }
+        order.setStatus(OrderStatus.DELIVERED);
+        order.setDeliveredAt(LocalDateTime.now());
+        Order saved = orderRepository.save(order);
+        orderSnapshotCache.refreshAfterCommit(saved.getId());
+        return saved;
+    }
+
+    /**
+     * Delivery code of an order in transit, for its customer only.
+     */
     @Transactional(readOnly = true)
-    public Order getOrder(Long orderId) {
+    public String getDeliveryOtp(Long orderId) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
-        if (order.getRider() != null) {
-            order.getRider().getName();
-            order.getRider().getPhone();
+        Long customerId = currentUserService.getCurrentPrincipal()
+                .map(p -> p.id())
+                .orElseThrow(() -> new RuntimeException("User not authenticated"));
+        if (!order.getCustomer().getId().equals(customerId)) {
+            throw new RuntimeException("Not your order");
+        }
+        if (order.getStatus() != OrderStatus.IN_TRANSIT || order.getDeliveryOtp() == null) {
+            throw new RuntimeException("No delivery code for this order");
+        }
+        return order.getDeliveryOtp();
+    }
+
+    /**
+     * Order as polled by the apps during delivery, served from {@link OrderSnapshotCache}; only for
+     * its customer, business and assigned rider.
+     */
+    public OrderResponse getOrder(Long orderId) {
+        Long callerId = currentUserService.getCurrentPrincipal()
+                .map(p -> p.id())
+                .orElseThrow(() -> new AccessDeniedException("User not authenticated"));
+        OrderResponse order = orderSnapshotCache.get(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+        if (!callerId.equals(order.getCustomerId()) && !callerId.equals(order.getBusinessId())
+                && !callerId.equals(order.getRiderId())) {
+            throw new AccessDeniedException("Not your order");
         }
         return order;
     }
 
-    public List<Order> getCustomerOrders(Long customerId) {
-        return orderRepository.findByCustomerIdOrderByCreatedAtDesc(customerId);
+    /*
+     * Order lists, newest first. Each page costs two queries whatever its size:
+     * the flattened orders, then all of their items.
+     */
+
+    @Transactional(readOnly = true)
+    public List<OrderResponse> getCustomerOrders(Long customerId, Integer page, Integer size) {
+        return withItems(orderRepository.findResponsesByCustomerId(customerId, pageRequest(page, size)));
     }
 
-    public List<Order> getBusinessOrders(Long businessId) {
-        return orderRepository.findByBusinessIdOrderByCreatedAtDesc(businessId);
+    @Transactional(readOnly = true)
+    public List<OrderResponse> getBusinessOrders(Long businessId, Integer page, Integer size) {
+        return withItems(orderRepository.findResponsesByBusinessId(businessId, pageRequest(page, size)));
     }
 
     @Transactional(readOnly = true)
-    public List<Order> getRiderOrders(Long riderId) {
-        return orderRepository.findByRiderIdOrderByCreatedAtDesc(riderId);
+    public List<OrderResponse> getRiderOrders(Long riderId, Integer page, Integer size) {
+        return withItems(orderRepository.findResponsesByRiderId(riderId, pageRequest(page, size)));
+    }
+
+    private Pageable pageRequest(Integer page, Integer size) {
+        int pageNumber = page != null ? Math.max(0, page) : 0;
+        int pageSize = size != null ? Math.min(Math.max(1, size), MAX_PAGE_SIZE) : DEFAULT_PAGE_SIZE;
+        return PageRequest.of(pageNumber, pageSize);
+    }
+
+    private List<OrderResponse> withItems(List<OrderResponse> orders) {
+        if (orders.isEmpty()) {
+            return orders;
+        }
+        Map<Long, List<OrderItemResponse>> itemsByOrder = orderItemRepository
+                .findResponsesByOrderIds(orders.stream().map(OrderResponse::getId).toList())
+                .stream()
+                .collect(Collectors.groupingBy(OrderItemResponse::getOrderId));
+        for (OrderResponse order : orders) {
+            order.setItems(itemsByOrder.getOrDefault(order.getId(), List.of()));
+        }
+        return orders;
     }
 }
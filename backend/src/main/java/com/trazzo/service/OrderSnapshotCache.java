@@ -0,0 +1,206 @@
+package com.trazzo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trazzo.dto.response.OrderResponse;
+import com.trazzo.model.enums.OrderStatus;
+import com.trazzo.repository.OrderItemRepository;
+import com.trazzo.repository.OrderRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Order snapshots in Redis for {@code GET /api/orders/{orderId}}, which both apps poll during a
+ * delivery. A snapshot is the flattened {@link OrderResponse} with its items; it is rewritten after
+ * every status transition commits, so a poll is one Redis round trip and no database access.
+ * The rider's position comes from a per-rider key refreshed by each location flush and is merged in
+ * by the same script that reads the snapshot.
+ * <p>
+ * Writes are ordered by a generation kept in the snapshot hash: a refresh bumps it before loading,
+ * a read-through miss reads it before loading, and a write is dropped once a newer generation has
+ * been issued. So a miss that loaded the order just before a commit cannot overwrite the refresh
+ * that follows the commit. The generation lives and expires with the snapshot.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderSnapshotCache {
+
+    private static final String ORDER_KEY_PREFIX = "trazzo:order:";
+    private static final String RIDER_POSITION_KEY_PREFIX = "trazzo:rider:pos:";
+
+    /*
+     * KEYS[1] snapshot; ARGV[1] rider position key prefix.
+     * Returns {snapshot json or nil, "lat,lng" or nil, generation or nil}.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> READ = new DefaultRedisScript<>(
+            "local s = redis.call('HMGET', KEYS[1], 'json', 'riderId', 'gen') " +
+            "local pos = false " +
+            "if s[1] and s[2] then pos = redis.call('GET', ARGV[1] .. s[2]) end " +
+            "return {s[1], pos, s[3]}", List.class);
+
+    /*
+     * KEYS[1] snapshot; ARGV[1] generation the order was loaded at, ARGV[2] json,
+     * ARGV[3] rider id or empty, ARGV[4] ttl in seconds.
+     * Returns 1 when written, 0 when a newer generation was issued meanwhile.
+     */
+    private static final RedisScript<Long> PUT = new DefaultRedisScript<>(
+            "local gen = tonumber(redis.call('HGET', KEYS[1], 'gen') or '0') " +
+            "if tonumber(ARGV[1]) < gen then return 0 end " +
+            "redis.call('HDEL', KEYS[1], 'riderId') " +
+            "redis.call('HSET', KEYS[1], 'json', ARGV[2], 'gen', ARGV[1]) " +
+            "if ARGV[3] ~= '' then redis.call('HSET', KEYS[1], 'riderId', ARGV[3]) end " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[4]) " +
+            "return 1", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${trazzo.order-snapshot.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    @Value("${trazzo.order-snapshot.rider-position-ttl-seconds:120}")
+    private long riderPositionTtlSeconds;
+
+    /**
+     * Snapshot of the order, loaded from the database and cached on a miss.
+     */
+    public Optional<OrderResponse> get(Long orderId) {
+        long generation = 0;
+        try {
+            List<?> cached = redisTemplate.execute(READ, List.of(ORDER_KEY_PREFIX + orderId), RIDER_POSITION_KEY_PREFIX);
+            if (cached != null && !cached.isEmpty() && cached.get(0) != null) {
+                meterRegistry.counter("trazzo.order.snapshot", "result", "hit").increment();
+                OrderResponse order = objectMapper.readValue((String) cached.get(0), OrderResponse.class);
+                withRiderPosition(order, cached.size() > 1 ? (String) cached.get(1) : null);
+                return Optional.of(order);
+            }
+            if (cached != null && cached.size() > 2 && cached.get(2) != null) {
+                generation = Long.parseLong((String) cached.get(2));
+            }
+        } catch (Exception e) {
+            log.warn("Order snapshot read failed for {}: {}", orderId, e.getMessage());
+        }
+        meterRegistry.counter("trazzo.order.snapshot", "result", "miss").increment();
+        Optional<OrderResponse> order = load(orderId);
+        long loadedAt = generation;
+        order.ifPresent(o -> put(o, loadedAt));
+        return order;
+    }
+
+    /**
+     * Rewrite the snapshot once the surrounding transaction commits, or right away when called
+     * outside a transaction. Call after every change to an order's status, rider or items.
+     */
+    public void refreshAfterCommit(Long orderId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh(orderId);
+                }
+            });
+        } else {
+            refresh(orderId);
+        }
+    }
+
+    /**
+     * Latest position per rider, written by {@link RiderLocationIngestService} on each flush.
+     */
+    public void putRiderPositions(List<Map.Entry<Long, RiderLocationIngestService.LocationPing>> batch) {
+        Duration ttl = Duration.ofSeconds(riderPositionTtlSeconds);
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                for (Map.Entry<Long, RiderLocationIngestService.LocationPing> entry : batch) {
+                    ops.opsForValue().set(RIDER_POSITION_KEY_PREFIX + entry.getKey(),
+                            entry.getValue().latitude() + "," + entry.getValue().longitude(), ttl);
+                }
+                return null;
+            }
+        });
+    }
+
+    private void refresh(Long orderId) {
+        String key = ORDER_KEY_PREFIX + orderId;
+        try {
+            // Issued before loading, so any load that started earlier can no longer be written
+            Long generation = redisTemplate.opsForHash().increment(key, "gen", 1);
+            redisTemplate.expire(key, Duration.ofMinutes(ttlMinutes));
+            Optional<OrderResponse> order = load(orderId);
+            if (order.isPresent()) {
+                put(order.get(), generation);
+            } else {
+                evict(key);
+            }
+        } catch (Exception e) {
+            log.warn("Order snapshot refresh failed for {}: {}", orderId, e.getMessage());
+            // Never leave a stale snapshot behind; the next read reloads it
+            evict(key);
+        }
+    }
+
+    /**
+     * Drops the snapshot but keeps its generation, so loads already in flight stay outdated.
+     */
+    private void evict(String key) {
+        try {
+            redisTemplate.opsForHash().delete(key, "json", "riderId");
+        } catch (Exception e) {
+            log.warn("Order snapshot evict failed for {}: {}", key, e.getMessage());
+        }
+    }
+
+    private Optional<OrderResponse> load(Long orderId) {
+        Optional<OrderResponse> order = orderRepository.findResponseById(orderId);
+        order.ifPresent(o -> o.setItems(orderItemRepository.findResponsesByOrderIds(List.of(orderId))));
+        return order;
+    }
+
+    private void put(OrderResponse order, long generation) {
+        try {
+            String json = objectMapper.writeValueAsString(order);
+            Long written = redisTemplate.execute(PUT, List.of(ORDER_KEY_PREFIX + order.getId()),
+                    String.valueOf(generation), json,
+                    order.getRiderId() != null ? order.getRiderId().toString() : "",
+                    String.valueOf(Duration.ofMinutes(ttlMinutes).toSeconds()));
+            if (written != null && written == 0) {
+                meterRegistry.counter("trazzo.order.snapshot.superseded").increment();
+            }
+        } catch (Exception e) {
+            log.warn("Order snapshot write failed for {}: {}", order.getId(), e.getMessage());
+        }
+    }
+
+    private void withRiderPosition(OrderResponse order, String position) {
+        if (position == null
+                || (order.getStatus() != OrderStatus.RIDER_ASSIGNED && order.getStatus() != OrderStatus.IN_TRANSIT)) {
+            return;
+        }
+        int comma = position.indexOf(',');
+        order.setRiderLatitude(Double.parseDouble(position.substring(0, comma)));
+        order.setRiderLongitude(Double.parseDouble(position.substring(comma + 1)));
+    }
+}
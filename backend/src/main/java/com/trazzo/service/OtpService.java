@@ -2,47 +2,123 @@ package com.trazzo.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
+import java.security.SecureRandom;
 import java.time.Duration;
-import java.util.Random;
+import java.util.List;
 
+/**
+ * One-time codes in Redis. Each operation is a single Lua script, so issuing (with its resend
+ * cooldown) and verifying (compare, count the attempt, consume on success) are atomic and cost one
+ * round trip: two concurrent verifications of the same code cannot both succeed.
+ * <p>
+ * A code is a hash {@code otp:<key>} with fields {@code code} and {@code attempts}. After
+ * {@code trazzo.otp.max-attempts} wrong guesses it stays locked until it expires or is reissued.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class OtpService {
 
+    private static final String OTP_PREFIX = "otp:";
+    private static final String COOLDOWN_PREFIX = "otp:cooldown:";
+    private static final String DELIVERY_KEY_PREFIX = "delivery:";
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /*
+     * KEYS[1] code, KEYS[2] cooldown; ARGV[1] code, ARGV[2] ttl ms, ARGV[3] cooldown ms.
+     * Returns 0 when issued, otherwise the remaining cooldown in ms.
+     */
+    private static final RedisScript<Long> ISSUE = new DefaultRedisScript<>(
+            "if tonumber(ARGV[3]) > 0 then " +
+            "  local wait = redis.call('PTTL', KEYS[2]) " +
+            "  if wait > 0 then return wait end " +
+            "  redis.call('SET', KEYS[2], '1', 'PX', ARGV[3]) " +
+            "end " +
+            "redis.call('DEL', KEYS[1]) " +
+            "redis.call('HSET', KEYS[1], 'code', ARGV[1], 'attempts', 0) " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[2]) " +
+            "return 0", Long.class);
+
+    /*
+     * KEYS[1] code; ARGV[1] presented code, ARGV[2] max attempts.
+     * Returns 1 verified (and consumed), 0 mismatch, -1 no code, -2 locked.
+     */
+    private static final RedisScript<Long> VERIFY = new DefaultRedisScript<>(
+            "local stored = redis.call('HMGET', KEYS[1], 'code', 'attempts') " +
+            "if not stored[1] then return -1 end " +
+            "if tonumber(stored[2]) >= tonumber(ARGV[2]) then return -2 end " +
+            "if stored[1] == ARGV[1] then redis.call('DEL', KEYS[1]) return 1 end " +
+            "if redis.call('HINCRBY', KEYS[1], 'attempts', 1) >= tonumber(ARGV[2]) then return -2 end " +
+            "return 0", Long.class);
+
+    public enum Verification {
+        VERIFIED,
+        MISMATCH,
+        EXPIRED,
+        LOCKED
+    }
+
     private final StringRedisTemplate redisTemplate;
 
-    private static final long OTP_EXPIRATION_MINUTES = 5;
-    private static final String OTP_PREFIX = "otp:";
+    @Value("${trazzo.otp-expiry-minutes:15}")
+    private long otpExpiryMinutes;
+
+    @Value("${trazzo.otp.delivery-expiry-minutes:180}")
+    private long deliveryOtpExpiryMinutes;
+
+    @Value("${trazzo.otp.max-attempts:5}")
+    private int maxAttempts;
 
-    public void generateAndSendOtp(String phoneNumber) {
+    @Value("${trazzo.otp.resend-cooldown-seconds:30}")
+    private long resendCooldownSeconds;
+
+    /**
+     * Issue a code for the phone number unless one was sent within the resend cooldown.
+     * Returns false while the cooldown is running.
+     */
+    public boolean generateAndSendOtp(String phoneNumber) {
         String otp = generateOtp();
-        storeOtp(phoneNumber, otp);
+        long waitMillis = issue(phoneNumber, otp, Duration.ofMinutes(otpExpiryMinutes),
+                Duration.ofSeconds(resendCooldownSeconds));
+        if (waitMillis > 0) {
+            log.debug("OTP for {} not resent, cooldown {} ms left", phoneNumber, waitMillis);
+            return false;
+        }
 
         // In a real application, integration with SMS provider (Twilio, SNS) would act
         // here.
         // For development, we log it.
         log.info("OTP generated for {}: {}", phoneNumber, otp);
+        return true;
     }
 
+    /**
+     * Store a code under the key, replacing any earlier one and resetting its attempts.
+     */
     public void storeOtp(String key, String otp) {
-        String redisKey = OTP_PREFIX + key;
-        redisTemplate.opsForValue().set(redisKey, otp, Duration.ofMinutes(OTP_EXPIRATION_MINUTES));
+        issue(key, otp, Duration.ofMinutes(otpExpiryMinutes), Duration.ZERO);
     }
 
-    public boolean validateOtp(String key, String otp) {
-        String redisKey = OTP_PREFIX + key;
-        String storedOtp = redisTemplate.opsForValue().get(redisKey);
-
-        if (storedOtp != null && storedOtp.equals(otp)) {
-            // Remove OTP after usage
-            redisTemplate.delete(redisKey);
-            return true;
+    public Verification verify(String key, String otp) {
+        Long result = redisTemplate.execute(VERIFY, List.of(OTP_PREFIX + key), otp, String.valueOf(maxAttempts));
+        if (result == null || result == -1) {
+            return Verification.EXPIRED;
+        }
+        if (result == -2) {
+            return Verification.LOCKED;
         }
-        return false;
+        return result == 1 ? Verification.VERIFIED : Verification.MISMATCH;
+    }
+
+    public boolean validateOtp(String key, String otp) {
+        return verify(key, otp) == Verification.VERIFIED;
     }
 
     // Alias for compatibility if needed, or simply use validateOtp
@@ -50,9 +126,35 @@ public class OtpService {
         return validateOtp(key, otp);
     }
 
+    /**
+     * Arm the delivery code for an order. The code itself is kept on the order
+     * ({@code orders.delivery_otp}) so the customer can read it for the whole delivery.
+     */
+    public void storeDeliveryOtp(Long orderId, String otp) {
+        issue(DELIVERY_KEY_PREFIX + orderId, otp, Duration.ofMinutes(deliveryOtpExpiryMinutes), Duration.ZERO);
+    }
+
+    /**
+     * Check the code the rider entered against the order's delivery code. A delivery can outlast the
+     * Redis entry; in that case it is re-armed from the order with a fresh attempt budget.
+     */
+    public Verification verifyDeliveryOtp(Long orderId, String storedOtp, String otp) {
+        Verification verification = verify(DELIVERY_KEY_PREFIX + orderId, otp);
+        if (verification == Verification.EXPIRED && storedOtp != null) {
+            storeDeliveryOtp(orderId, storedOtp);
+            verification = verify(DELIVERY_KEY_PREFIX + orderId, otp);
+        }
+        return verification;
+    }
+
     public String generateOtp() {
-        Random random = new Random();
-        int otp = 100000 + random.nextInt(900000);
+        int otp = 100000 + RANDOM.nextInt(900000);
         return String.valueOf(otp);
     }
+
+    private long issue(String key, String otp, Duration ttl, Duration cooldown) {
+        Long waitMillis = redisTemplate.execute(ISSUE, List.of(OTP_PREFIX + key, COOLDOWN_PREFIX + key),
+                otp, String.valueOf(ttl.toMillis()), String.valueOf(cooldown.toMillis()));
+        return waitMillis == null ? 0 : waitMillis;
+    }
 }
@@ -0,0 +1,141 @@
+package com.trazzo.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * Durable work queue for rider assignment, backed by a Redis stream with one consumer group.
+ * Order ids are appended after the order's transaction commits and consumed by a fixed set of
+ * worker threads (started by {@link RiderAssignmentWorker}), so the HTTP request that paid for
+ * the order never waits on the geo lookup or the WebSocket sends.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RiderAssignmentQueue {
+
+    static final String STREAM_KEY = "trazzo:assignments";
+    private static final String GROUP = "assigners";
+    private static final String ORDER_ID_FIELD = "orderId";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisConnectionFactory connectionFactory;
+
+    @Value("${trazzo.assignment.workers:4}")
+    private int workers;
+
+    @Value("${trazzo.assignment.stream-max-length:10000}")
+    private long streamMaxLength;
+
+    private ThreadPoolTaskExecutor executor;
+    private StreamMessageListenerContainer<String, MapRecord<String, String, String>> container;
+
+    /**
+     * Start {@code trazzo.assignment.workers} consumers that pass each queued order id to {@code handler}.
+     */
+    public synchronized void startWorkers(LongConsumer handler) {
+        if (container != null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForStream().createGroup(STREAM_KEY, ReadOffset.from("0"), GROUP);
+        } catch (Exception e) {
+            // BUSYGROUP: the group survives restarts, which is what makes the queue durable
+            log.debug("Assignment consumer group already exists: {}", e.getMessage());
+        }
+
+        executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("rider-assign-");
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(0);
+        executor.initialize();
+
+        container = StreamMessageListenerContainer.create(connectionFactory,
+                StreamMessageListenerContainer.StreamMessageListenerContainerOptions.builder()
+                        .executor(executor)
+                        .pollTimeout(Duration.ofSeconds(1))
+                        .batchSize(10)
+                        .errorHandler(t -> log.warn("Assignment stream poll failed: {}", t.getMessage()))
+                        .build());
+
+        // One subscription per worker: each is a long-running poll loop on its own executor thread
+        String instance = Long.toHexString(System.nanoTime());
+        for (int i = 0; i < workers; i++) {
+            container.receiveAutoAck(
+                    Consumer.from(GROUP, "worker-" + instance + "-" + i),
+                    StreamOffset.create(STREAM_KEY, ReadOffset.lastConsumed()),
+                    record -> handle(record, handler));
+        }
+        container.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (container != null) {
+            container.stop();
+        }
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Queue the order for assignment once the surrounding transaction commits, or right away
+     * when called outside a transaction.
+     */
+    public void enqueueAfterCommit(Long orderId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(orderId);
+                }
+            });
+        } else {
+            enqueue(orderId);
+        }
+    }
+
+    public void enqueue(Long orderId) {
+        try {
+            redisTemplate.opsForStream().add(StreamRecords.newRecord()
+                    .in(STREAM_KEY)
+                    .ofMap(Map.of(ORDER_ID_FIELD, orderId.toString())));
+        } catch (Exception e) {
+            // The order is committed as PAYMENT_CONFIRMED; RiderAssignmentWorker re-enqueues it
+            log.warn("Could not enqueue order {} for assignment: {}", orderId, e.getMessage());
+        }
+    }
+
+    public void trim() {
+        redisTemplate.opsForStream().trim(STREAM_KEY, streamMaxLength, true);
+    }
+
+    private void handle(MapRecord<String, String, String> record, LongConsumer handler) {
+        long orderId = Long.parseLong(record.getValue().get(ORDER_ID_FIELD));
+        try {
+            handler.accept(orderId);
+        } catch (Exception e) {
+            log.warn("Assignment failed for order {}: {}", orderId, e.getMessage());
+        }
+    }
+}
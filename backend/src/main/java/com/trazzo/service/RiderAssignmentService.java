@@ -1,18 +1,23 @@
 package com.trazzo.service;
 
+import com.trazzo.dto.event.OrderAssignedEvent;
 import com.trazzo.model.Order;
 import com.trazzo.model.User;
 import com.trazzo.model.enums.OrderStatus;
 import com.trazzo.model.enums.RiderStatus;
-import com.trazzo.model.enums.UserRole;
 import com.trazzo.repository.OrderRepository;
 import com.trazzo.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.locationtech.jts.geom.Point;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 import java.util.Optional;
@@ -21,13 +26,47 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class RiderAssignmentService {
 
+    private static final int CANDIDATE_LIMIT = 5;
+
     private final UserRepository userRepository;
     private final OrderRepository orderRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final WebSocketPublisher webSocketPublisher;
+    private final RiderLocationIndex riderLocationIndex;
+    private final RiderAssignmentQueue riderAssignmentQueue;
+    private final OrderSnapshotCache orderSnapshotCache;
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
 
     @Value("${trazzo.rider-assignment-radius}")
     private double riderAssignmentRadius;
 
+    /**
+     * Entry point for paid orders. The order is persisted as PAYMENT_CONFIRMED and the caller
+     * returns straight away. In {@code immediate} mode the id is queued for
+     * {@link RiderAssignmentWorker} once this transaction commits. In {@code batch} mode
+     * {@link RiderDispatchEngine} picks it up in its next window.
+     */
+    @Transactional
+    public Order requestAssignment(Order order) {
+        order.setStatus(OrderStatus.PAYMENT_CONFIRMED);
+        order = orderRepository.save(order);
+        if (DispatchMode.from(environment) == DispatchMode.IMMEDIATE) {
+            riderAssignmentQueue.enqueueAfterCommit(order.getId());
+        }
+        return order;
+    }
+
+    /**
+     * Assign a rider to a queued order if it is still waiting for one. Safe to call more than
+     * once for the same order: the order row is locked and re-checked.
+     */
+    @Transactional
+    public void assignPendingOrder(long orderId) {
+        orderRepository.findByIdForUpdate(orderId)
+                .filter(o -> o.getStatus() == OrderStatus.PAYMENT_CONFIRMED && o.getRider() == null)
+                .ifPresent(this::assignRider);
+    }
+
     @Transactional
     public Order assignRider(Order order) {
         // Find nearest available rider to business location
@@ -37,18 +76,25 @@ public class RiderAssignmentService {
             throw new RuntimeException("Business location not set");
         }
 
-        // Convert meters to degrees (approx)
-        double radiusDegrees = riderAssignmentRadius / 111320.0;
-
-        Optional<User> riderOpt = userRepository.findNearestAvailableRider(
-                businessLocation,
-                radiusDegrees);
+        Timer.Sample lookup = Timer.start(meterRegistry);
+        List<Long> candidates = riderLocationIndex.findNearest(
+                        businessLocation.getY(),
+                        businessLocation.getX(),
+                        riderAssignmentRadius,
+                        CANDIDATE_LIMIT)
+                .stream()
+                .map(RiderLocationIndex.NearbyRider::riderId)
+                .toList();
+        Optional<User> riderOpt = claimFirstAvailable(candidates);
+        String outcome = "nearby";
 
         // Fallback: if no rider with location in range, assign any AVAILABLE rider (e.g. they just went Available but app hasn't sent location yet)
         if (riderOpt.isEmpty()) {
-            List<User> anyAvailable = userRepository.findByRoleAndRiderStatus(UserRole.RIDER, RiderStatus.AVAILABLE);
-            riderOpt = anyAvailable.isEmpty() ? Optional.empty() : Optional.of(anyAvailable.get(0));
+            riderOpt = claimAnyAvailable();
+            outcome = riderOpt.isPresent() ? "fallback" : "no_rider";
         }
+        // Candidate lookup and claim, tagged by which path produced the rider (or none)
+        lookup.stop(meterRegistry.timer("trazzo.assignment.lookup", "outcome", outcome));
 
         if (riderOpt.isEmpty()) {
             // No rider available: leave order without rider, status stays PAYMENT_CONFIRMED
@@ -56,30 +102,110 @@ public class RiderAssignmentService {
             return orderRepository.save(order);
         }
 
-        User rider = riderOpt.get();
+        return completeAssignment(order, riderOpt.get());
+    }
 
-        // Update order
+    /**
+     * Claim any AVAILABLE rider from the database, for orders with no indexed rider in range (for
+     * example a rider who just went AVAILABLE and has not sent a location yet).
+     */
+    @Transactional
+    public Optional<User> claimAnyAvailable() {
+        return claimFirstAvailable(userRepository.findRiderIdsByStatus(
+                RiderStatus.AVAILABLE, PageRequest.of(0, CANDIDATE_LIMIT)));
+    }
+
+    /**
+     * Attach an already claimed rider to the order and notify both parties once the assignment
+     * commits, so a rolled-back window never announces a rider.
+     */
+    @Transactional
+    public Order completeAssignment(Order order, User rider) {
         order.setRider(rider);
         order.setStatus(OrderStatus.RIDER_ASSIGNED);
 
-        // Update rider status
-        rider.setRiderStatus(RiderStatus.BUSY);
-        userRepository.save(rider);
-
         orderRepository.save(order);
+        orderSnapshotCache.refreshAfterCommit(order.getId());
 
-        // Notify rider via WebSocket
-        messagingTemplate.convertAndSendToUser(
-                rider.getEmail(),
-                "/queue/orders",
-                order);
-
-        // Notify customer
-        messagingTemplate.convertAndSendToUser(
-                order.getCustomer().getEmail(),
-                "/queue/orders",
-                order);
+        // Same payload for rider and customer, encoded once
+        byte[] payload = webSocketPublisher.encode(toAssignedEvent(order, rider));
+        notifyAfterCommit(List.of(rider.getEmail(), order.getCustomer().getEmail()), payload);
 
         return order;
     }
+
+    private void notifyAfterCommit(List<String> users, byte[] payload) {
+        Runnable notify = () -> users.forEach(user -> webSocketPublisher.sendToUser(user, "/queue/orders", payload));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    notify.run();
+                }
+            });
+        } else {
+            notify.run();
+        }
+    }
+
+    private OrderAssignedEvent toAssignedEvent(Order order, User rider) {
+        User business = order.getBusiness();
+        Point pickup = business.getLocation();
+        Point dropoff = order.getDeliveryLocation();
+        return OrderAssignedEvent.builder()
+                .orderId(order.getId())
+                .status(order.getStatus())
+                .businessId(business.getId())
+                .businessName(business.getBusinessName() != null ? business.getBusinessName() : business.getName())
+                .pickupLatitude(pickup != null ? pickup.getY() : null)
+                .pickupLongitude(pickup != null ? pickup.getX() : null)
+                .deliveryAddress(order.getDeliveryAddress())
+                .deliveryLatitude(dropoff != null ? dropoff.getY() : null)
+                .deliveryLongitude(dropoff != null ? dropoff.getX() : null)
+                .totalAmount(order.getTotalAmount())
+                .riderId(rider.getId())
+                .riderName(rider.getName())
+                .riderPhone(rider.getPhone())
+                .build();
+    }
+
+    /**
+     * Claim the first rider in {@code candidateIds} that is still AVAILABLE, in order.
+     * Each attempt is a single conditional UPDATE, so two concurrent assignments can never
+     * both win the same rider; the loser simply moves on to its next candidate.
+     * Must run inside the caller's transaction so the claim commits with the order. A won rider
+     * leaves the index once the claim commits. After a lost claim the committed status is re-read:
+     * a rider still AVAILABLE is mid-claim in another transaction and may yet be released, so it
+     * stays indexed; one that is BUSY or OFFLINE (changed on another instance) is evicted.
+     */
+    @Transactional
+    public Optional<User> claimFirstAvailable(List<Long> candidateIds) {
+        for (Long riderId : candidateIds) {
+            if (userRepository.claimAvailableRider(riderId) == 1) {
+                removeFromIndexAfterCommit(riderId);
+                User rider = userRepository.findById(riderId)
+                        .orElseThrow(() -> new RuntimeException("Rider not found"));
+                // Keep a previously loaded instance in step with the row we just updated
+                rider.setRiderStatus(RiderStatus.BUSY);
+                return Optional.of(rider);
+            }
+            if (userRepository.findRiderStatusById(riderId).orElse(null) != RiderStatus.AVAILABLE) {
+                riderLocationIndex.remove(riderId);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private void removeFromIndexAfterCommit(Long riderId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    riderLocationIndex.remove(riderId);
+                }
+            });
+        } else {
+            riderLocationIndex.remove(riderId);
+        }
+    }
 }
@@ -0,0 +1,54 @@
+package com.trazzo.service;
+
+import com.trazzo.model.Order;
+import com.trazzo.model.enums.OrderStatus;
+import com.trazzo.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Consumes {@link RiderAssignmentQueue} in immediate dispatch mode and periodically re-enqueues
+ * orders still waiting in PAYMENT_CONFIRMED without a rider (no rider was free, or the enqueue
+ * after commit was lost).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@Conditional(DispatchMode.Immediate.class)
+public class RiderAssignmentWorker {
+
+    private final RiderAssignmentQueue riderAssignmentQueue;
+    private final RiderAssignmentService riderAssignmentService;
+    private final OrderRepository orderRepository;
+
+    @Value("${trazzo.assignment.retry-batch-size:100}")
+    private int retryBatchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        riderAssignmentQueue.startWorkers(riderAssignmentService::assignPendingOrder);
+    }
+
+    @Scheduled(fixedDelayString = "${trazzo.assignment.retry-interval-ms:15000}",
+            initialDelayString = "${trazzo.assignment.retry-interval-ms:15000}")
+    public void retryUnassigned() {
+        List<Order> waiting = orderRepository.findUnassignedWithBusiness(
+                OrderStatus.PAYMENT_CONFIRMED, PageRequest.of(0, retryBatchSize));
+        for (Order order : waiting) {
+            riderAssignmentQueue.enqueue(order.getId());
+        }
+        if (!waiting.isEmpty()) {
+            log.info("Re-enqueued {} orders waiting for a rider", waiting.size());
+        }
+        riderAssignmentQueue.trim();
+    }
+}
@@ -0,0 +1,128 @@
+package com.trazzo.service;
+
+import com.trazzo.model.Order;
+import com.trazzo.model.User;
+import com.trazzo.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Point;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Batch dispatch: every {@code trazzo.dispatch.window-ms} the PAYMENT_CONFIRMED orders without a rider
+ * are matched against free riders in one assignment problem (min total pickup distance) instead of
+ * each order greedily taking its nearest rider. Riders come from {@link RiderLocationIndex}; each order
+ * contributes its nearest few so the matrix stays small. Orders left unmatched fall back to any
+ * AVAILABLE rider in the database, as in immediate mode. All assignments of a window commit together.
+ * The window's orders stay row-locked until then, and locked orders are skipped, so windows on
+ * several instances never dispatch the same order.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Conditional(DispatchMode.Batch.class)
+public class RiderDispatchEngine {
+
+    /** Cost for pairs outside the assignment radius; such matches are discarded after solving. */
+    private static final double INFEASIBLE = 1e12;
+
+    private final OrderRepository orderRepository;
+    private final RiderAssignmentService riderAssignmentService;
+    private final RiderLocationIndex riderLocationIndex;
+
+    @Value("${trazzo.rider-assignment-radius}")
+    private double riderAssignmentRadius;
+
+    @Value("${trazzo.dispatch.max-orders-per-window:200}")
+    private int maxOrdersPerWindow;
+
+    @Value("${trazzo.dispatch.candidates-per-order:10}")
+    private int candidatesPerOrder;
+
+    @Scheduled(fixedDelayString = "${trazzo.dispatch.window-ms:3000}")
+    @Transactional
+    public void dispatchWindow() {
+        List<Long> locked = orderRepository.lockUnassignedPaidOrderIds(maxOrdersPerWindow);
+        if (locked.isEmpty()) {
+            return;
+        }
+        List<Order> pending = orderRepository.findWithBusinessByIdIn(locked);
+        List<Order> orders = new ArrayList<>(pending.size());
+        for (Order order : pending) {
+            if (order.getBusiness().getLocation() != null) {
+                orders.add(order);
+            }
+        }
+        if (orders.isEmpty()) {
+            return;
+        }
+
+        // Candidate riders: union of each order's nearest free riders
+        Map<Long, RiderLocationIndex.NearbyRider> riders = new LinkedHashMap<>();
+        for (Order order : orders) {
+            Point pickup = order.getBusiness().getLocation();
+            for (RiderLocationIndex.NearbyRider rider : riderLocationIndex.findNearest(
+                    pickup.getY(), pickup.getX(), riderAssignmentRadius, candidatesPerOrder)) {
+                riders.putIfAbsent(rider.riderId(), rider);
+            }
+        }
+        List<RiderLocationIndex.NearbyRider> riderList = new ArrayList<>(riders.values());
+        int[] match = new int[orders.size()];
+        Arrays.fill(match, -1);
+        double[][] cost = new double[orders.size()][riderList.size()];
+        if (!riderList.isEmpty()) {
+            for (int i = 0; i < orders.size(); i++) {
+                Point pickup = orders.get(i).getBusiness().getLocation();
+                Arrays.fill(cost[i], INFEASIBLE);
+                for (int j = 0; j < riderList.size(); j++) {
+                    RiderLocationIndex.NearbyRider rider = riderList.get(j);
+                    double d = RiderLocationIndex.distanceMeters(
+                            pickup.getY(), pickup.getX(), rider.latitude(), rider.longitude());
+                    if (d <= riderAssignmentRadius) {
+                        cost[i][j] = d;
+                    }
+                }
+            }
+            match = AssignmentMatcher.optimal(cost);
+        }
+
+        int assigned = 0;
+        List<Order> unmatched = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            int j = match[i];
+            if (j < 0 || cost[i][j] >= INFEASIBLE) {
+                unmatched.add(orders.get(i));
+                continue;
+            }
+            // A rider can still be taken by an immediate-path claim; that order waits for the next window
+            Optional<User> rider = riderAssignmentService.claimFirstAvailable(List.of(riderList.get(j).riderId()));
+            if (rider.isPresent()) {
+                riderAssignmentService.completeAssignment(orders.get(i), rider.get());
+                assigned++;
+            }
+        }
+
+        int fallback = 0;
+        for (Order order : unmatched) {
+            Optional<User> rider = riderAssignmentService.claimAnyAvailable();
+            if (rider.isEmpty()) {
+                break;
+            }
+            riderAssignmentService.completeAssignment(order, rider.get());
+            fallback++;
+        }
+        log.info("Dispatch window: {} orders, {} candidate riders, {} assigned, {} by fallback",
+                orders.size(), riderList.size(), assigned, fallback);
+    }
+}
@@ -0,0 +1,249 @@
+package com.trazzo.service;
+
+import com.trazzo.model.User;
+import com.trazzo.model.enums.RiderStatus;
+import com.trazzo.model.enums.UserRole;
+import com.trazzo.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Point;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory grid index of AVAILABLE riders that have a known location.
+ * Cells are fixed-size lat/lng squares; nearest-rider lookups scan rings of cells
+ * outward from the query point, so they never touch the database.
+ * Kept current by {@link RiderService} and warmed from Postgres on startup. AVAILABLE riders
+ * without a stored location are remembered and enter the grid with their first ping.
+ * The index is per-JVM: status changes and pings handled by other instances reach it only through
+ * {@link #resync}, which reloads AVAILABLE riders from Postgres every
+ * {@code trazzo.rider-index.resync-ms}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RiderLocationIndex {
+
+    /** Cell edge in degrees (~1.1 km of latitude). */
+    static final double CELL_SIZE_DEGREES = 0.01;
+    private static final double METERS_PER_DEGREE = 111320.0;
+    private static final double EARTH_RADIUS_METERS = 6371008.8;
+
+    private final UserRepository userRepository;
+
+    private final Map<Long, RiderPosition> positions = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+    /** AVAILABLE riders with no location yet (status set before the first ping reached the database). */
+    private final Set<Long> awaitingLocation = ConcurrentHashMap.newKeySet();
+
+    public record RiderPosition(Long riderId, double latitude, double longitude, long cell) {
+    }
+
+    public record NearbyRider(Long riderId, double latitude, double longitude, double distanceMeters) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        resync();
+        log.info("Rider index warmed with {} available riders, {} awaiting a location",
+                positions.size(), awaitingLocation.size());
+    }
+
+    /**
+     * Reload AVAILABLE riders and their stored locations from Postgres, and drop indexed riders that
+     * are no longer AVAILABLE. Only riders indexed before the query started are dropped, so a rider
+     * that went AVAILABLE on this instance meanwhile is not lost.
+     */
+    @Scheduled(fixedDelayString = "${trazzo.rider-index.resync-ms:30000}",
+            initialDelayString = "${trazzo.rider-index.resync-ms:30000}")
+    public void resync() {
+        Set<Long> stale = new HashSet<>(positions.keySet());
+        stale.addAll(awaitingLocation);
+        List<User> available = userRepository.findByRoleAndRiderStatus(UserRole.RIDER, RiderStatus.AVAILABLE);
+        for (User rider : available) {
+            stale.remove(rider.getId());
+            sync(rider);
+        }
+        for (Long riderId : stale) {
+            remove(riderId);
+        }
+        if (!stale.isEmpty()) {
+            log.debug("Rider index resync dropped {} riders no longer available", stale.size());
+        }
+    }
+
+    /**
+     * Bring the index in line with the rider's current status and location.
+     */
+    public void sync(User rider) {
+        if (rider.getRiderStatus() == RiderStatus.AVAILABLE && rider.getCurrentLocation() != null) {
+            Point p = rider.getCurrentLocation();
+            put(rider.getId(), p.getY(), p.getX());
+        } else if (rider.getRiderStatus() == RiderStatus.AVAILABLE) {
+            remove(rider.getId());
+            awaitingLocation.add(rider.getId());
+        } else {
+            remove(rider.getId());
+        }
+    }
+
+    public void put(Long riderId, double latitude, double longitude) {
+        awaitingLocation.remove(riderId);
+        long cell = cellKey(latitude, longitude);
+        RiderPosition previous = positions.put(riderId, new RiderPosition(riderId, latitude, longitude, cell));
+        moveCell(riderId, previous, cell);
+    }
+
+    /**
+     * Apply a location ping. Moves an indexed rider, or adds an AVAILABLE rider still waiting for a
+     * location; riders that are not AVAILABLE are ignored. The check and the update are one atomic
+     * step per rider, so a concurrent {@link #remove} (rider claimed) is never undone by a ping.
+     */
+    public void moveIfAvailable(Long riderId, double latitude, double longitude) {
+        long cell = cellKey(latitude, longitude);
+        RiderPosition[] previous = new RiderPosition[1];
+        RiderPosition updated = positions.compute(riderId, (id, current) -> {
+            if (current == null && !awaitingLocation.remove(id)) {
+                return null;
+            }
+            previous[0] = current;
+            return new RiderPosition(id, latitude, longitude, cell);
+        });
+        if (updated != null) {
+            moveCell(riderId, previous[0], cell);
+        }
+    }
+
+    public void remove(Long riderId) {
+        awaitingLocation.remove(riderId);
+        RiderPosition previous = positions.remove(riderId);
+        if (previous != null) {
+            removeFromCell(previous.cell(), riderId);
+        }
+    }
+
+    public boolean contains(Long riderId) {
+        return positions.containsKey(riderId);
+    }
+
+    public int size() {
+        return positions.size();
+    }
+
+    public Optional<NearbyRider> findNearest(double latitude, double longitude, double radiusMeters) {
+        List<NearbyRider> nearest = findNearest(latitude, longitude, radiusMeters, 1);
+        return nearest.isEmpty() ? Optional.empty() : Optional.of(nearest.get(0));
+    }
+
+    /**
+     * Up to {@code limit} riders within {@code radiusMeters}, closest first.
+     */
+    public List<NearbyRider> findNearest(double latitude, double longitude, double radiusMeters, int limit) {
+        List<NearbyRider> found = new ArrayList<>();
+        if (limit <= 0 || positions.isEmpty()) {
+            return found;
+        }
+        int row = cellRow(latitude);
+        int col = cellCol(longitude);
+        int maxRing = (int) Math.ceil(radiusMeters / (CELL_SIZE_DEGREES * METERS_PER_DEGREE * lngScale(latitude))) + 1;
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int r = row - ring; r <= row + ring; r++) {
+                for (int c = col - ring; c <= col + ring; c++) {
+                    if (Math.abs(r - row) != ring && Math.abs(c - col) != ring) {
+                        continue; // interior cells were scanned by an earlier ring
+                    }
+                    Set<Long> ids = cells.get(pack(r, c));
+                    if (ids == null) {
+                        continue;
+                    }
+                    for (Long id : ids) {
+                        RiderPosition pos = positions.get(id);
+                        if (pos == null) {
+                            continue;
+                        }
+                        double d = distanceMeters(latitude, longitude, pos.latitude(), pos.longitude());
+                        if (d <= radiusMeters) {
+                            found.add(new NearbyRider(id, pos.latitude(), pos.longitude(), d));
+                        }
+                    }
+                }
+            }
+            // Every rider outside the scanned square is at least `ring` cells away
+            if (found.size() >= limit && ringReachMeters(ring, latitude) >= kthDistance(found, limit)) {
+                break;
+            }
+        }
+        found.sort(Comparator.comparingDouble(NearbyRider::distanceMeters));
+        return found.size() > limit ? new ArrayList<>(found.subList(0, limit)) : found;
+    }
+
+    public static double distanceMeters(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private void moveCell(Long riderId, RiderPosition previous, long cell) {
+        if (previous != null && previous.cell() != cell) {
+            removeFromCell(previous.cell(), riderId);
+        }
+        cells.computeIfAbsent(cell, k -> ConcurrentHashMap.newKeySet()).add(riderId);
+    }
+
+    private void removeFromCell(long cell, Long riderId) {
+        cells.computeIfPresent(cell, (k, ids) -> {
+            ids.remove(riderId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static double kthDistance(List<NearbyRider> found, int k) {
+        return found.stream()
+                .mapToDouble(NearbyRider::distanceMeters)
+                .sorted()
+                .skip(k - 1)
+                .findFirst()
+                .orElse(Double.MAX_VALUE);
+    }
+
+    private static double ringReachMeters(int ring, double latitude) {
+        return ring * CELL_SIZE_DEGREES * METERS_PER_DEGREE * lngScale(latitude);
+    }
+
+    /** Longitude cells shrink towards the poles; use the narrower edge as a safe bound. */
+    private static double lngScale(double latitude) {
+        return Math.max(0.01, Math.cos(Math.toRadians(Math.min(Math.abs(latitude) + CELL_SIZE_DEGREES, 89.0))));
+    }
+
+    private static int cellRow(double latitude) {
+        return (int) Math.floor(latitude / CELL_SIZE_DEGREES);
+    }
+
+    private static int cellCol(double longitude) {
+        return (int) Math.floor(longitude / CELL_SIZE_DEGREES);
+    }
+
+    private static long cellKey(double latitude, double longitude) {
+        return pack(cellRow(latitude), cellCol(longitude));
+    }
+
+    private static long pack(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+}
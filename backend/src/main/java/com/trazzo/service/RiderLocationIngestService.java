@@ -0,0 +1,135 @@
+package com.trazzo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * High-frequency rider GPS ingestion. Pings are coalesced per rider in memory and the latest
+ * position is written on a fixed interval with one {@code UPDATE ... FROM (VALUES ...)} per batch,
+ * bypassing JPA so a ping costs no transaction and no {@code updated_at} write.
+ * The in-memory {@link RiderLocationIndex} is moved immediately, so assignment never waits for a flush.
+ * Each flushed position is also cached in Redis for order snapshots.
+ */
+@Slf4j
+@Service
+public class RiderLocationIngestService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RiderLocationIndex riderLocationIndex;
+    private final OrderSnapshotCache orderSnapshotCache;
+
+    private final Counter pingCounter;
+    private final DistributionSummary batchSize;
+    private final Timer flushLag;
+    private final Timer flushDuration;
+
+    private final Map<Long, LocationPing> pending = new ConcurrentHashMap<>();
+
+    @Value("${trazzo.rider-location.max-batch-size:500}")
+    private int maxBatchSize;
+
+    record LocationPing(double latitude, double longitude, long receivedAtNanos) {
+    }
+
+    public RiderLocationIngestService(JdbcTemplate jdbcTemplate,
+            RiderLocationIndex riderLocationIndex,
+            OrderSnapshotCache orderSnapshotCache,
+            MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.riderLocationIndex = riderLocationIndex;
+        this.orderSnapshotCache = orderSnapshotCache;
+        this.pingCounter = Counter.builder("trazzo.rider.location.pings")
+                .description("Rider location pings accepted")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("trazzo.rider.location.flush.batch.size")
+                .description("Riders written per flush")
+                .register(meterRegistry);
+        this.flushLag = Timer.builder("trazzo.rider.location.flush.lag")
+                .description("Age of the oldest coalesced ping when it reached the database")
+                .register(meterRegistry);
+        this.flushDuration = Timer.builder("trazzo.rider.location.flush.duration")
+                .register(meterRegistry);
+        meterRegistry.gauge("trazzo.rider.location.pending", pending, Map::size);
+    }
+
+    public void ingest(Long riderId, double latitude, double longitude) {
+        pending.put(riderId, new LocationPing(latitude, longitude, System.nanoTime()));
+        riderLocationIndex.moveIfAvailable(riderId, latitude, longitude);
+        pingCounter.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${trazzo.rider-location.flush-interval-ms:2000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, LocationPing>> drained = new ArrayList<>(pending.size());
+        for (Map.Entry<Long, LocationPing> entry : pending.entrySet()) {
+            // Only drop the exact ping we are writing; a newer one stays queued for the next flush
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                drained.add(Map.entry(entry.getKey(), entry.getValue()));
+            }
+        }
+
+        long oldest = Long.MAX_VALUE;
+        for (Map.Entry<Long, LocationPing> entry : drained) {
+            oldest = Math.min(oldest, entry.getValue().receivedAtNanos());
+        }
+
+        long start = System.nanoTime();
+        for (int from = 0; from < drained.size(); from += maxBatchSize) {
+            List<Map.Entry<Long, LocationPing>> batch = drained.subList(from, Math.min(from + maxBatchSize, drained.size()));
+            try {
+                writeBatch(batch);
+                batchSize.record(batch.size());
+            } catch (Exception e) {
+                log.warn("Rider location flush failed for {} riders: {}", batch.size(), e.getMessage());
+                for (Map.Entry<Long, LocationPing> entry : batch) {
+                    pending.putIfAbsent(entry.getKey(), entry.getValue());
+                }
+            }
+            try {
+                // Rider position shown in order snapshots (OrderSnapshotCache)
+                orderSnapshotCache.putRiderPositions(batch);
+            } catch (Exception e) {
+                log.debug("Rider positions not cached for {} riders: {}", batch.size(), e.getMessage());
+            }
+        }
+        long now = System.nanoTime();
+        flushDuration.record(Duration.ofNanos(now - start));
+        if (oldest != Long.MAX_VALUE) {
+            flushLag.record(Duration.ofNanos(now - oldest));
+        }
+    }
+
+    private void writeBatch(List<Map.Entry<Long, LocationPing>> batch) {
+        StringBuilder sql = new StringBuilder(
+                "UPDATE users AS u SET current_location = ST_SetSRID(ST_MakePoint(v.lng, v.lat), 4326) FROM (VALUES ");
+        Object[] args = new Object[batch.size() * 3];
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(CAST(? AS BIGINT), CAST(? AS DOUBLE PRECISION), CAST(? AS DOUBLE PRECISION))");
+            Map.Entry<Long, LocationPing> entry = batch.get(i);
+            args[i * 3] = entry.getKey();
+            args[i * 3 + 1] = entry.getValue().latitude();
+            args[i * 3 + 2] = entry.getValue().longitude();
+        }
+        sql.append(") AS v(id, lat, lng) WHERE u.id = v.id AND u.role = 'RIDER'");
+        jdbcTemplate.update(sql.toString(), args);
+    }
+}
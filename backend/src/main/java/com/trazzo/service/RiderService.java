@@ -4,19 +4,17 @@ import com.trazzo.model.User;
 import com.trazzo.model.enums.RiderStatus;
 import com.trazzo.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
-import org.locationtech.jts.geom.Coordinate;
-import org.locationtech.jts.geom.GeometryFactory;
-import org.locationtech.jts.geom.Point;
-import org.locationtech.jts.geom.PrecisionModel;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 @RequiredArgsConstructor
 public class RiderService {
 
     private final UserRepository userRepository;
-    private final GeometryFactory geometryFactory = new GeometryFactory(new PrecisionModel(), 4326);
+    private final RiderLocationIndex riderLocationIndex;
 
     @Transactional
     public User updateRiderStatus(Long riderId, RiderStatus status) {
@@ -24,17 +22,22 @@ public class RiderService {
                 .orElseThrow(() -> new RuntimeException("Rider not found"));
 
         rider.setRiderStatus(status);
-        return userRepository.save(rider);
+        rider = userRepository.save(rider);
+        syncIndexAfterCommit(rider);
+        return rider;
     }
 
-    @Transactional
-    public User updateRiderLocation(Long riderId, double latitude, double longitude) {
-        User rider = userRepository.findById(riderId)
-                .orElseThrow(() -> new RuntimeException("Rider not found"));
-
-        Point location = geometryFactory.createPoint(new Coordinate(longitude, latitude));
-        rider.setCurrentLocation(location);
-
-        return userRepository.save(rider);
+    /** The index must not show a status that could still roll back. */
+    private void syncIndexAfterCommit(User rider) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    riderLocationIndex.sync(rider);
+                }
+            });
+        } else {
+            riderLocationIndex.sync(rider);
+        }
     }
 }
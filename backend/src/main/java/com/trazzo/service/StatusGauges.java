@@ -0,0 +1,71 @@
+package com.trazzo.service;
+
+import com.trazzo.model.enums.OrderStatus;
+import com.trazzo.model.enums.RiderStatus;
+import com.trazzo.repository.OrderRepository;
+import com.trazzo.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gauges for riders per {@link RiderStatus} ({@code trazzo.riders{status}}) and orders per
+ * {@link OrderStatus} ({@code trazzo.orders{status}}). The counts come from two GROUP BY queries
+ * refreshed on a fixed interval, so a scrape never touches the database.
+ */
+@Slf4j
+@Component
+public class StatusGauges {
+
+    private final UserRepository userRepository;
+    private final OrderRepository orderRepository;
+
+    private final Map<RiderStatus, AtomicLong> riders = new EnumMap<>(RiderStatus.class);
+    private final Map<OrderStatus, AtomicLong> orders = new EnumMap<>(OrderStatus.class);
+
+    public StatusGauges(UserRepository userRepository, OrderRepository orderRepository, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.orderRepository = orderRepository;
+        for (RiderStatus status : RiderStatus.values()) {
+            AtomicLong value = new AtomicLong();
+            riders.put(status, value);
+            Gauge.builder("trazzo.riders", value, AtomicLong::get)
+                    .description("Riders by status")
+                    .tag("status", status.name())
+                    .register(meterRegistry);
+        }
+        for (OrderStatus status : OrderStatus.values()) {
+            AtomicLong value = new AtomicLong();
+            orders.put(status, value);
+            Gauge.builder("trazzo.orders", value, AtomicLong::get)
+                    .description("Orders by status")
+                    .tag("status", status.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${trazzo.metrics.gauge-refresh-ms:15000}")
+    public void refresh() {
+        try {
+            Map<RiderStatus, Long> riderCounts = new EnumMap<>(RiderStatus.class);
+            for (UserRepository.RiderStatusCount row : userRepository.countRidersByStatus()) {
+                riderCounts.put(row.getStatus(), row.getTotal());
+            }
+            riders.forEach((status, value) -> value.set(riderCounts.getOrDefault(status, 0L)));
+
+            Map<OrderStatus, Long> orderCounts = new EnumMap<>(OrderStatus.class);
+            for (OrderRepository.OrderStatusCount row : orderRepository.countByStatus()) {
+                orderCounts.put(row.getStatus(), row.getTotal());
+            }
+            orders.forEach((status, value) -> value.set(orderCounts.getOrDefault(status, 0L)));
+        } catch (Exception e) {
+            log.warn("Status gauge refresh failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.trazzo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.Map;
+
+/**
+ * WebSocket sends with a payload encoded once. {@link #encode} serializes an event to JSON bytes;
+ * the send methods hand those bytes to the broker as-is, so one event pushed to several
+ * destinations costs a single Jackson pass instead of one per destination.
+ */
+@Service
+@RequiredArgsConstructor
+public class WebSocketPublisher {
+
+    private static final Map<String, Object> JSON_HEADERS =
+            Map.of(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON);
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+
+    public byte[] encode(Object event) {
+        try {
+            return objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not encode WebSocket payload: " + e.getMessage());
+        }
+    }
+
+    public void send(String destination, byte[] payload) {
+        messagingTemplate.convertAndSend(destination, payload, JSON_HEADERS);
+    }
+
+    public void sendToUser(String user, String destination, byte[] payload) {
+        messagingTemplate.convertAndSendToUser(user, destination, payload, JSON_HEADERS);
+    }
+}
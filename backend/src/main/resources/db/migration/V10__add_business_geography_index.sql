@@ -0,0 +1,5 @@
+-- Nearby business search orders by CAST(location AS geography) <-> point (KNN).
+-- A GIST index on the same expression lets Postgres walk businesses in distance order
+-- and stop after LIMIT rows instead of computing ST_Distance for every row in range.
+CREATE INDEX IF NOT EXISTS idx_users_business_geog ON users USING GIST ((CAST(location AS geography)))
+    WHERE role = 'BUSINESS' AND location IS NOT NULL;
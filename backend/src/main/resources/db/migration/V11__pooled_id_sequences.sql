@@ -0,0 +1,5 @@
+-- Hot tables hand out ids in blocks of 50 (Hibernate pooled-lo, MessageIdAllocator):
+-- one nextval reserves [value, value + 49], so inserts need no per-row sequence call
+-- and Hibernate can batch them. Must match allocationSize on OrderItem and Message.
+ALTER SEQUENCE order_items_id_seq INCREMENT BY 50;
+ALTER SEQUENCE messages_id_seq INCREMENT BY 50;
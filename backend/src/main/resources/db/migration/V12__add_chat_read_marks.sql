@@ -0,0 +1,4 @@
+-- Per-party read marks: a message sent at or before the receiving party's mark is already read,
+-- even when the chat journal (ChatMessageJournal) writes it to messages after the mark was set
+ALTER TABLE chats ADD COLUMN IF NOT EXISTS customer_read_at TIMESTAMP;
+ALTER TABLE chats ADD COLUMN IF NOT EXISTS business_read_at TIMESTAMP;
@@ -0,0 +1,5 @@
+-- Keyset pagination over a chat's history: WHERE chat_id = ? AND (sent_at, id) < (?, ?) ORDER BY sent_at DESC, id DESC
+CREATE INDEX IF NOT EXISTS idx_messages_chat_sent_at_id ON messages(chat_id, sent_at, id);
+
+-- Covered by the composite index above
+DROP INDEX IF EXISTS idx_messages_chat;
@@ -0,0 +1,30 @@
+-- Materialized inbox: last message preview and per-party unread counters, maintained on message write
+ALTER TABLE chats ADD COLUMN IF NOT EXISTS last_message_preview TEXT;
+ALTER TABLE chats ADD COLUMN IF NOT EXISTS customer_unread_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE chats ADD COLUMN IF NOT EXISTS business_unread_count INTEGER NOT NULL DEFAULT 0;
+
+-- Backfill from existing history
+UPDATE chats c SET last_message_preview = latest.preview
+FROM (
+    SELECT DISTINCT ON (chat_id) chat_id, LEFT(content, 140) AS preview
+    FROM messages
+    ORDER BY chat_id, sent_at DESC, id DESC
+) latest
+WHERE c.id = latest.chat_id;
+
+UPDATE chats c SET
+    customer_unread_count = counts.to_customer,
+    business_unread_count = counts.to_business
+FROM (
+    SELECT m.chat_id,
+           COUNT(*) FILTER (WHERE m.sender_id = ch.business_id) AS to_customer,
+           COUNT(*) FILTER (WHERE m.sender_id = ch.customer_id) AS to_business
+    FROM messages m JOIN chats ch ON ch.id = m.chat_id
+    WHERE m.is_read = FALSE
+    GROUP BY m.chat_id
+) counts
+WHERE c.id = counts.chat_id;
+
+-- Inbox listing: a user's chats ordered by most recent activity
+CREATE INDEX IF NOT EXISTS idx_chats_customer_last_message ON chats(customer_id, last_message_at DESC);
+CREATE INDEX IF NOT EXISTS idx_chats_business_last_message ON chats(business_id, last_message_at DESC);
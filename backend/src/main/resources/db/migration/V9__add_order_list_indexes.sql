@@ -0,0 +1,9 @@
+-- Order lists page by party, newest first; the composite indexes serve both the filter and the sort
+CREATE INDEX IF NOT EXISTS idx_orders_customer_created ON orders(customer_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_business_created ON orders(business_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_rider_created ON orders(rider_id, created_at DESC, id DESC);
+
+-- Superseded: each is a prefix of the index above it
+DROP INDEX IF EXISTS idx_orders_customer;
+DROP INDEX IF EXISTS idx_orders_business;
+DROP INDEX IF EXISTS idx_orders_rider;
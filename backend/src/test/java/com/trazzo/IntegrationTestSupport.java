@@ -0,0 +1,58 @@
+package com.trazzo;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.lifecycle.Startables;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Base for tests that need the real PostGIS schema and Redis. The containers are shared by every
+ * test class in the run and started on first use; without Docker the tests are skipped.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class IntegrationTestSupport {
+
+    private static PostgreSQLContainer<?> postgres;
+    private static GenericContainer<?> redis;
+
+    @DynamicPropertySource
+    static void containerProperties(DynamicPropertyRegistry registry) {
+        startContainers();
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.data.redis.host", redis::getHost);
+        registry.add("spring.data.redis.port", () -> redis.getMappedPort(6379));
+    }
+
+    /**
+     * Properties pointing an application at the shared containers, for tests that start their own
+     * contexts.
+     */
+    protected static String[] containerArgs() {
+        startContainers();
+        return new String[] {
+                "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                "--spring.datasource.username=" + postgres.getUsername(),
+                "--spring.datasource.password=" + postgres.getPassword(),
+                "--spring.data.redis.host=" + redis.getHost(),
+                "--spring.data.redis.port=" + redis.getMappedPort(6379)
+        };
+    }
+
+    private static synchronized void startContainers() {
+        if (postgres != null) {
+            return;
+        }
+        postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgis/postgis:15-3.3")
+                .asCompatibleSubstituteFor("postgres"))
+                .withDatabaseName("trazzo")
+                .withUsername("trazzo_user")
+                .withPassword("trazzo_pass");
+        redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+        Startables.deepStart(postgres, redis).join();
+    }
+}
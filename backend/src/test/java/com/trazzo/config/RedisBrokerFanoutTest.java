@@ -0,0 +1,110 @@
+package com.trazzo.config;
+
+import com.trazzo.IntegrationTestSupport;
+import com.trazzo.TrazzoApplication;
+import com.trazzo.model.User;
+import com.trazzo.model.enums.UserRole;
+import com.trazzo.repository.UserRepository;
+import com.trazzo.security.JwtService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two application instances on one Redis with {@code trazzo.websocket.broker=redis}: a frame sent
+ * through instance A's broker reaches a STOMP subscriber connected to instance B.
+ */
+class RedisBrokerFanoutTest extends IntegrationTestSupport {
+
+    private final List<ConfigurableApplicationContext> instances = new ArrayList<>();
+    private WebSocketStompClient stompClient;
+
+    @AfterEach
+    void stop() {
+        if (stompClient != null) {
+            stompClient.stop();
+        }
+        instances.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    void frameSentOnOneInstanceReachesSubscriberOnAnother() throws Exception {
+        ConfigurableApplicationContext a = start("node-a");
+        ConfigurableApplicationContext b = start("node-b");
+
+        String suffix = UUID.randomUUID().toString().substring(0, 12);
+        User user = a.getBean(UserRepository.class).save(User.builder()
+                .email("fanout-" + suffix + "@test.local")
+                .phone("+1" + suffix)
+                .passwordHash("x")
+                .name("Fanout " + suffix)
+                .role(UserRole.CUSTOMER)
+                .build());
+        String token = b.getBean(JwtService.class).generateAccessToken(user);
+
+        stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(new StringMessageConverter());
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add("Authorization", "Bearer " + token);
+        int portB = ((WebServerApplicationContext) b).getWebServer().getPort();
+        StompSession session = stompClient.connectAsync("ws://localhost:" + portB + "/ws", new WebSocketHttpHeaders(),
+                connectHeaders, new StompSessionHandlerAdapter() {
+                }).get(10, TimeUnit.SECONDS);
+
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        session.subscribe("/topic/chat/fanout-test", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return String.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.add((String) payload);
+            }
+        });
+        // SUBSCRIBE is asynchronous; resend until the subscription is live on B
+        String body = "hello from a " + suffix;
+        String frame = null;
+        for (int attempt = 0; attempt < 20 && frame == null; attempt++) {
+            a.getBean(SimpMessagingTemplate.class).convertAndSend("/topic/chat/fanout-test", body);
+            frame = received.poll(500, TimeUnit.MILLISECONDS);
+        }
+
+        assertThat(frame).isEqualTo(body);
+        session.disconnect();
+    }
+
+    private ConfigurableApplicationContext start(String node) {
+        String[] args = Stream.concat(Stream.of(containerArgs()), Stream.of(
+                        "--server.port=0",
+                        "--trazzo.websocket.broker=redis",
+                        "--trazzo.chat.journal-consumer=" + node))
+                .toArray(String[]::new);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(TrazzoApplication.class).run(args);
+        instances.add(context);
+        return context;
+    }
+}
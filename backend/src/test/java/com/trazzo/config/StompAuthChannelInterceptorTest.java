@@ -0,0 +1,38 @@
+package com.trazzo.config;
+
+import com.trazzo.model.User;
+import com.trazzo.model.enums.UserRole;
+import com.trazzo.model.enums.UserStatus;
+import com.trazzo.security.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StompAuthChannelInterceptorTest {
+
+    @Test
+    void connectWithTokenOfSuspendedAccountIsRefused() {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", "5367566B59703373367639792F423F4528482B4D6251655468576D5A71347437");
+        ReflectionTestUtils.setField(jwtService, "accessTokenExpiration", 900_000L);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+        String token = jwtService.generateAccessToken(User.builder()
+                .id(5L).email("rider@trazzo.test").role(UserRole.RIDER).status(UserStatus.SUSPENDED).build());
+
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.addNativeHeader("Authorization", "Bearer " + token);
+        accessor.setLeaveMutable(true);
+        Message<byte[]> connect = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+
+        StompAuthChannelInterceptor interceptor = new StompAuthChannelInterceptor(jwtService, null, null);
+        assertThatThrownBy(() -> interceptor.preSend(connect, null))
+                .isInstanceOf(MessagingException.class)
+                .hasMessageContaining("not active");
+    }
+}
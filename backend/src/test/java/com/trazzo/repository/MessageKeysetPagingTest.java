@@ -0,0 +1,97 @@
+package com.trazzo.repository;
+
+import com.trazzo.IntegrationTestSupport;
+import com.trazzo.dto.response.MessageResponse;
+import com.trazzo.model.Chat;
+import com.trazzo.model.Message;
+import com.trazzo.model.User;
+import com.trazzo.model.enums.UserRole;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Keyset paging over a chat whose messages share timestamps: every message is returned exactly
+ * once, and the cursor predicate is an index range rather than a filter.
+ */
+@SpringBootTest
+class MessageKeysetPagingTest extends IntegrationTestSupport {
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private ChatRepository chatRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void pagesBackThroughTiesWithoutGapsOrRepeats() {
+        User customer = userRepository.save(user(UserRole.CUSTOMER));
+        User business = userRepository.save(user(UserRole.BUSINESS));
+        Chat chat = chatRepository.save(Chat.builder().customer(customer).business(business).build());
+        LocalDateTime base = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            // Five messages per timestamp, so page boundaries fall inside ties
+            ids.add(messageRepository.save(Message.builder()
+                    .chat(chat).sender(customer).content("m" + i).sentAt(base.plusSeconds(i / 5)).build()).getId());
+        }
+
+        List<Long> seen = new ArrayList<>();
+        List<MessageResponse> page = messageRepository.findLatest(chat.getId(), PageRequest.of(0, 7));
+        while (!page.isEmpty()) {
+            page.forEach(m -> seen.add(m.getId()));
+            MessageResponse oldest = page.get(page.size() - 1);
+            page = messageRepository.findBefore(chat.getId(), oldest.getSentAt(), oldest.getId(), PageRequest.of(0, 7));
+        }
+        assertThat(seen).doesNotHaveDuplicates().containsExactlyInAnyOrderElementsOf(ids);
+
+        MessageResponse first = messageRepository.findLatest(chat.getId(), PageRequest.of(0, 25)).get(24);
+        assertThat(messageRepository.findAfter(chat.getId(), first.getSentAt(), first.getId(), PageRequest.of(0, 100)))
+                .extracting(MessageResponse::getId)
+                .hasSize(24)
+                .doesNotContain(first.getId());
+    }
+
+    @Test
+    void cursorIsAnIndexRange() {
+        String plan = transactionTemplate.execute(status -> {
+            // Tiny test tables would otherwise be scanned sequentially
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            return String.join("\n", jdbcTemplate.queryForList(
+                    "EXPLAIN SELECT id FROM messages WHERE chat_id = 1 AND (sent_at, id) < (now(), 1000) " +
+                    "ORDER BY sent_at DESC, id DESC LIMIT 50", String.class));
+        });
+        assertThat(plan).contains("idx_messages_chat_sent_at_id").containsPattern("Index Cond: .*ROW\\(sent_at, id\\) <");
+    }
+
+    private static User user(UserRole role) {
+        String suffix = UUID.randomUUID().toString().substring(0, 12);
+        return User.builder()
+                .email(role.name().toLowerCase() + "-" + suffix + "@test.local")
+                .phone("+1" + suffix)
+                .passwordHash("x")
+                .name(role.name() + " " + suffix)
+                .role(role)
+                .build();
+    }
+}
@@ -0,0 +1,59 @@
+package com.trazzo.security;
+
+import com.trazzo.model.User;
+import com.trazzo.model.enums.UserRole;
+import com.trazzo.model.enums.UserStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtAuthenticationFilterTest {
+
+    private final JwtService jwtService = new JwtService();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(jwtService, "secretKey", "5367566B59703373367639792F423F4528482B4D6251655468576D5A71347437");
+        ReflectionTestUtils.setField(jwtService, "accessTokenExpiration", 900_000L);
+        jwtService.init();
+        filter = new JwtAuthenticationFilter(jwtService, null, null, meterRegistry);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void activeAccountIsAuthenticated() throws Exception {
+        filter.doFilter(request(UserStatus.ACTIVE), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal())
+                .isEqualTo(new AuthenticatedUser(5L, "rider@trazzo.test", UserRole.RIDER, UserStatus.ACTIVE));
+    }
+
+    @Test
+    void suspendedAccountStaysAnonymous() throws Exception {
+        filter.doFilter(request(UserStatus.SUSPENDED), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        assertThat(meterRegistry.timer("trazzo.auth.jwt", "principal", "inactive").count()).isEqualTo(1);
+    }
+
+    private MockHttpServletRequest request(UserStatus status) {
+        User user = User.builder().id(5L).email("rider@trazzo.test").role(UserRole.RIDER).status(status).build();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/rider/orders");
+        request.addHeader("Authorization", "Bearer " + jwtService.generateAccessToken(user));
+        return request;
+    }
+}
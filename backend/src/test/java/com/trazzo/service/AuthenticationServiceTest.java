@@ -0,0 +1,70 @@
+package com.trazzo.service;
+
+import com.trazzo.dto.request.LoginRequest;
+import com.trazzo.model.User;
+import com.trazzo.model.enums.UserRole;
+import com.trazzo.repository.UserRepository;
+import com.trazzo.security.PasswordHashingOverloadedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuthenticationServiceTest {
+
+    private static final String EMAIL = "gone@trazzo.test";
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final PasswordEncoder overloadedEncoder = mock(PasswordEncoder.class);
+    private final LoginRequest request = LoginRequest.builder().emailOrPhone(EMAIL).password("secret").build();
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.findByEmailOrPhone(EMAIL, EMAIL))
+                .thenReturn(Optional.of(User.builder().id(1L).email(EMAIL).role(UserRole.CUSTOMER).build()));
+        when(overloadedEncoder.encode(any())).thenThrow(new PasswordHashingOverloadedException(3));
+        when(overloadedEncoder.matches(any(), any())).thenThrow(new PasswordHashingOverloadedException(3));
+    }
+
+    @Test
+    void loginUnwrapsHashingOverloadFromUserLookup() {
+        AuthenticationManager manager = mock(AuthenticationManager.class);
+        when(manager.authenticate(any())).thenThrow(
+                new InternalAuthenticationServiceException("lookup failed", new PasswordHashingOverloadedException(3)));
+
+        assertThatThrownBy(() -> service(manager).login(request))
+                .isInstanceOf(PasswordHashingOverloadedException.class)
+                .extracting("retryAfterSeconds").isEqualTo(3L);
+    }
+
+    /**
+     * The account vanishes between the service's lookup and the provider's, so the provider falls
+     * back to its timing-attack dummy hash, which the saturated pool refuses.
+     */
+    @Test
+    void loginSurfacesHashingOverloadFromTimingAttackMitigation() {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(username -> {
+            throw new UsernameNotFoundException("User not found");
+        });
+        provider.setPasswordEncoder(overloadedEncoder);
+
+        assertThatThrownBy(() -> service(new ProviderManager(provider)).login(request))
+                .isInstanceOf(PasswordHashingOverloadedException.class);
+    }
+
+    private AuthenticationService service(AuthenticationManager manager) {
+        return new AuthenticationService(userRepository, overloadedEncoder, null, manager, null, null);
+    }
+}
@@ -0,0 +1,163 @@
+package com.trazzo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * A batch holding one row the database rejects (bad JSON metadata, unknown chat) must not block the
+ * journal: the good rows are written, the bad one is dead-lettered, and the whole batch is
+ * acknowledged. A database outage must leave the batch pending instead. Entries another consumer
+ * left pending past the idle threshold are claimed and replayed.
+ */
+@ExtendWith(MockitoExtension.class)
+class ChatMessageJournalTest {
+
+    private static final long POISON_ID = 102L;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private StreamOperations<String, Object, Object> streamOperations;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Long> written = new ArrayList<>();
+    private ChatMessageJournal journal;
+
+    @BeforeEach
+    void setUp() {
+        journal = new ChatMessageJournal(redisTemplate, jdbcTemplate, new ObjectMapper(), meterRegistry);
+        ReflectionTestUtils.setField(journal, "consumerName", "writer-test");
+        ReflectionTestUtils.setField(journal, "flushBatchSize", 500L);
+        ReflectionTestUtils.setField(journal, "claimIdleMillis", 30_000L);
+        when(redisTemplate.<Object, Object>opsForStream()).thenReturn(streamOperations);
+        // Nothing pending elsewhere unless a test says otherwise
+        lenient().when(streamOperations.pending(eq(ChatMessageJournal.STREAM_KEY), anyString(), any(), anyLong()))
+                .thenReturn(new PendingMessages("chat-writers", List.of()));
+        when(streamOperations.read(any(Consumer.class), any(StreamReadOptions.class), any(StreamOffset.class)))
+                .thenReturn(List.of(record("1-0", 101), record("1-1", POISON_ID), record("1-2", 103)));
+    }
+
+    @Test
+    void poisonRowIsDeadLetteredAndBatchAcknowledged() {
+        doAnswer(invocation -> {
+            Object[] args = (Object[]) invocation.getRawArguments()[1];
+            if (args.length > 7 || args[0].equals(POISON_ID)) {
+                throw new DataIntegrityViolationException("violates foreign key constraint messages_chat_id_fkey");
+            }
+            written.add((Long) args[0]);
+            return 1;
+        }).when(jdbcTemplate).update(anyString(), any(Object[].class));
+
+        journal.flush();
+
+        assertThat(written).containsExactly(101L, 103L);
+        ArgumentCaptor<MapRecord<String, Object, Object>> deadLetter = recordCaptor();
+        verify(streamOperations).add(deadLetter.capture());
+        assertThat(deadLetter.getValue().getStream()).isEqualTo(ChatMessageJournal.DEAD_LETTER_KEY);
+        assertThat(deadLetter.getValue().getValue()).containsEntry("id", String.valueOf(POISON_ID)).containsKey("error");
+        verify(streamOperations).acknowledge(eq(ChatMessageJournal.STREAM_KEY), anyString(),
+                eq(RecordId.of("1-0")), eq(RecordId.of("1-1")), eq(RecordId.of("1-2")));
+        verify(redisTemplate).executePipelined(any(SessionCallback.class));
+        assertThat(meterRegistry.counter("trazzo.chat.journal.dead_lettered").count()).isEqualTo(1);
+    }
+
+    @Test
+    void databaseOutageLeavesBatchPending() {
+        when(jdbcTemplate.update(anyString(), any(Object[].class)))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+
+        journal.flush();
+
+        verify(streamOperations, never()).add(any(MapRecord.class));
+        verify(streamOperations, never()).acknowledge(anyString(), anyString(), any(RecordId[].class));
+        assertThat(ReflectionTestUtils.getField(journal, "replayPending")).isEqualTo(true);
+    }
+
+    @Test
+    void idleEntriesOfOtherConsumersAreClaimedAndReplayed() {
+        ReflectionTestUtils.setField(journal, "replayPending", false);
+        when(streamOperations.pending(eq(ChatMessageJournal.STREAM_KEY), anyString(), any(), anyLong()))
+                .thenReturn(new PendingMessages("chat-writers", List.of(
+                        pending("0-1", "writer-gone", Duration.ofMinutes(5)),
+                        pending("0-2", "writer-busy", Duration.ofSeconds(2)),
+                        pending("0-3", "writer-test", Duration.ofMinutes(5)))));
+        when(streamOperations.claim(eq(ChatMessageJournal.STREAM_KEY), anyString(), eq("writer-test"),
+                eq(Duration.ofSeconds(30)), any(RecordId[].class)))
+                .thenReturn(List.of(record("0-1", 100)));
+
+        journal.flush();
+
+        verify(streamOperations).claim(ChatMessageJournal.STREAM_KEY, "chat-writers", "writer-test",
+                Duration.ofSeconds(30), RecordId.of("0-1"));
+        ArgumentCaptor<StreamOffset<String>> offset = offsetCaptor();
+        verify(streamOperations).read(any(Consumer.class), any(StreamReadOptions.class), offset.capture());
+        assertThat(offset.getValue().getOffset()).isEqualTo(ReadOffset.from("0"));
+    }
+
+    private static PendingMessage pending(String recordId, String consumer, Duration idle) {
+        return new PendingMessage(RecordId.of(recordId), Consumer.from("chat-writers", consumer), idle, 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<StreamOffset<String>> offsetCaptor() {
+        return ArgumentCaptor.forClass(StreamOffset.class);
+    }
+
+    private static MapRecord<String, Object, Object> record(String recordId, long messageId) {
+        Map<Object, Object> fields = Map.of(
+                "id", String.valueOf(messageId),
+                "chatId", "7",
+                "senderId", "11",
+                "type", "TEXT",
+                "content", "hello " + messageId,
+                "sentAt", "2024-05-01T10:15:30");
+        return StreamRecords.newRecord().in(ChatMessageJournal.STREAM_KEY).withId(RecordId.of(recordId)).ofMap(fields);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<MapRecord<String, Object, Object>> recordCaptor() {
+        return ArgumentCaptor.forClass(MapRecord.class);
+    }
+}
@@ -0,0 +1,20 @@
+package com.trazzo.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DispatchModeTest {
+
+    @Test
+    void modeIsCaseInsensitiveAndDefaultsToImmediate() {
+        assertThat(DispatchMode.from(new MockEnvironment())).isEqualTo(DispatchMode.IMMEDIATE);
+        assertThat(DispatchMode.from(new MockEnvironment().withProperty(DispatchMode.PROPERTY, "batch")))
+                .isEqualTo(DispatchMode.BATCH);
+        assertThat(DispatchMode.from(new MockEnvironment().withProperty(DispatchMode.PROPERTY, "BATCH")))
+                .isEqualTo(DispatchMode.BATCH);
+        assertThat(DispatchMode.from(new MockEnvironment().withProperty(DispatchMode.PROPERTY, "Immediate")))
+                .isEqualTo(DispatchMode.IMMEDIATE);
+    }
+}
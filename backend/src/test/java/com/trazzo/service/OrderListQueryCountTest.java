@@ -0,0 +1,111 @@
+package com.trazzo.service;
+
+import com.trazzo.IntegrationTestSupport;
+import com.trazzo.dto.response.OrderResponse;
+import com.trazzo.model.Chat;
+import com.trazzo.model.Order;
+import com.trazzo.model.OrderItem;
+import com.trazzo.model.User;
+import com.trazzo.model.enums.UserRole;
+import com.trazzo.security.UserPrincipalCache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Order lists must cost two statements per page (orders, then all their items) however many
+ * orders and items the page holds: no lazy loads of parties or items per order.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({OrderService.class, UserPrincipalCache.class})
+class OrderListQueryCountTest extends IntegrationTestSupport {
+
+    private static final GeometryFactory GEOMETRY = new GeometryFactory(new PrecisionModel(), 4326);
+
+    @MockBean
+    private RiderAssignmentService riderAssignmentService;
+
+    @MockBean
+    private CurrentUserService currentUserService;
+
+    @MockBean
+    private OtpService otpService;
+
+    @MockBean
+    private OrderSnapshotCache orderSnapshotCache;
+
+    @MockBean
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void orderListPageIsTwoStatements() {
+        User customer = entityManager.persist(user(UserRole.CUSTOMER));
+        User business = entityManager.persist(user(UserRole.BUSINESS));
+        Chat chat = entityManager.persist(Chat.builder().customer(customer).business(business).build());
+        for (int i = 0; i < 15; i++) {
+            Order order = Order.builder()
+                    .customer(customer)
+                    .business(business)
+                    .chat(chat)
+                    .deliveryAddress("Street " + i)
+                    .deliveryLocation(GEOMETRY.createPoint(new Coordinate(77.59, 12.97)))
+                    .totalAmount(BigDecimal.TEN)
+                    .build();
+            for (int j = 0; j < 3; j++) {
+                order.getItems().add(OrderItem.builder()
+                        .order(order).itemName("Item " + j).quantity(1)
+                        .unitPrice(BigDecimal.ONE).subtotal(BigDecimal.ONE).build());
+            }
+            entityManager.persist(order);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<OrderResponse> page = orderService.getCustomerOrders(customer.getId(), 0, 10);
+
+        assertThat(page).hasSize(10).allSatisfy(order -> assertThat(order.getItems()).hasSize(3));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    private static User user(UserRole role) {
+        String suffix = UUID.randomUUID().toString().substring(0, 12);
+        return User.builder()
+                .email(role.name().toLowerCase() + "-" + suffix + "@test.local")
+                .phone("+1" + suffix)
+                .passwordHash("x")
+                .name(role.name() + " " + suffix)
+                .role(role)
+                .build();
+    }
+}
@@ -0,0 +1,100 @@
+package com.trazzo.service;
+
+import com.trazzo.dto.response.OrderResponse;
+import com.trazzo.model.Order;
+import com.trazzo.model.User;
+import com.trazzo.model.enums.OrderStatus;
+import com.trazzo.model.enums.UserRole;
+import com.trazzo.model.enums.UserStatus;
+import com.trazzo.repository.OrderRepository;
+import com.trazzo.security.AuthenticatedUser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceTest {
+
+    @Mock
+    private CurrentUserService currentUserService;
+
+    @Mock
+    private OrderSnapshotCache orderSnapshotCache;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OtpService otpService;
+
+    @InjectMocks
+    private OrderService orderService;
+
+    @Test
+    void partiesOfTheOrderCanReadIt() {
+        cacheSnapshot();
+        for (long partyId : new long[] {1L, 2L, 3L}) {
+            signIn(partyId);
+            assertThat(orderService.getOrder(7L).getId()).isEqualTo(7L);
+        }
+    }
+
+    @Test
+    void anyoneElseIsDenied() {
+        cacheSnapshot();
+        signIn(4L);
+        assertThatThrownBy(() -> orderService.getOrder(7L)).isInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    void onlyTheAssignedRiderCanStartDelivery() {
+        when(orderRepository.findByIdForUpdate(7L)).thenReturn(Optional.of(order(OrderStatus.RIDER_ASSIGNED, null)));
+        signIn(4L);
+
+        assertThatThrownBy(() -> orderService.startDelivery(7L)).isInstanceOf(AccessDeniedException.class);
+        verify(otpService, never()).generateOtp();
+    }
+
+    @Test
+    void repeatedStartDeliveryKeepsTheIssuedCode() {
+        Order order = order(OrderStatus.IN_TRANSIT, "482913");
+        when(orderRepository.findByIdForUpdate(7L)).thenReturn(Optional.of(order));
+        signIn(3L);
+
+        assertThat(orderService.startDelivery(7L).getDeliveryOtp()).isEqualTo("482913");
+        verify(otpService, never()).generateOtp();
+        verify(otpService, never()).storeDeliveryOtp(anyLong(), anyString());
+    }
+
+    private void cacheSnapshot() {
+        when(orderSnapshotCache.get(7L)).thenReturn(Optional.of(OrderResponse.builder()
+                .id(7L).customerId(1L).businessId(2L).riderId(3L).build()));
+    }
+
+    private static Order order(OrderStatus status, String deliveryOtp) {
+        return Order.builder()
+                .id(7L)
+                .rider(User.builder().id(3L).role(UserRole.RIDER).build())
+                .status(status)
+                .deliveryOtp(deliveryOtp)
+                .build();
+    }
+
+    private void signIn(long userId) {
+        when(currentUserService.getCurrentPrincipal()).thenReturn(Optional.of(
+                new AuthenticatedUser(userId, "user" + userId + "@trazzo.test", UserRole.CUSTOMER, UserStatus.ACTIVE)));
+    }
+}
@@ -0,0 +1,106 @@
+package com.trazzo.service;
+
+import com.trazzo.model.User;
+import com.trazzo.model.enums.RiderStatus;
+import com.trazzo.model.enums.UserRole;
+import com.trazzo.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RiderAssignmentServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RiderLocationIndex riderLocationIndex;
+
+    @InjectMocks
+    private RiderAssignmentService riderAssignmentService;
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void lostClaimOnRiderStillAvailableLeavesItIndexed() {
+        when(userRepository.claimAvailableRider(1L)).thenReturn(0);
+        when(userRepository.claimAvailableRider(2L)).thenReturn(0);
+        when(userRepository.findRiderStatusById(1L)).thenReturn(Optional.of(RiderStatus.AVAILABLE));
+        when(userRepository.findRiderStatusById(2L)).thenReturn(Optional.of(RiderStatus.AVAILABLE));
+
+        Optional<User> claimed = riderAssignmentService.claimFirstAvailable(List.of(1L, 2L));
+
+        assertThat(claimed).isEmpty();
+        verify(riderLocationIndex, never()).remove(1L);
+        verify(riderLocationIndex, never()).remove(2L);
+    }
+
+    @Test
+    void lostClaimOnRiderNoLongerAvailableEvictsIt() {
+        when(userRepository.claimAvailableRider(1L)).thenReturn(0);
+        when(userRepository.claimAvailableRider(2L)).thenReturn(0);
+        when(userRepository.findRiderStatusById(1L)).thenReturn(Optional.of(RiderStatus.BUSY));
+        when(userRepository.findRiderStatusById(2L)).thenReturn(Optional.of(RiderStatus.OFFLINE));
+
+        Optional<User> claimed = riderAssignmentService.claimFirstAvailable(List.of(1L, 2L));
+
+        assertThat(claimed).isEmpty();
+        verify(riderLocationIndex).remove(1L);
+        verify(riderLocationIndex).remove(2L);
+    }
+
+    @Test
+    void wonClaimLeavesIndexOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        when(userRepository.claimAvailableRider(1L)).thenReturn(0);
+        when(userRepository.findRiderStatusById(1L)).thenReturn(Optional.of(RiderStatus.AVAILABLE));
+        when(userRepository.claimAvailableRider(2L)).thenReturn(1);
+        when(userRepository.findById(2L)).thenReturn(Optional.of(User.builder()
+                .id(2L).role(UserRole.RIDER).riderStatus(RiderStatus.AVAILABLE).build()));
+
+        Optional<User> claimed = riderAssignmentService.claimFirstAvailable(List.of(1L, 2L, 3L));
+
+        assertThat(claimed).map(User::getRiderStatus).contains(RiderStatus.BUSY);
+        verify(riderLocationIndex, never()).remove(2L);
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        verify(riderLocationIndex).remove(2L);
+        verify(riderLocationIndex, never()).remove(1L);
+    }
+
+    @Test
+    void rolledBackClaimKeepsRiderIndexed() {
+        TransactionSynchronizationManager.initSynchronization();
+        when(userRepository.claimAvailableRider(2L)).thenReturn(1);
+        when(userRepository.findById(2L)).thenReturn(Optional.of(User.builder()
+                .id(2L).role(UserRole.RIDER).riderStatus(RiderStatus.AVAILABLE).build()));
+
+        riderAssignmentService.claimFirstAvailable(List.of(2L));
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+
+        verify(riderLocationIndex, never()).remove(2L);
+    }
+}
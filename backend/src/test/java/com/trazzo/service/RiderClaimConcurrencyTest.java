@@ -0,0 +1,93 @@
+package com.trazzo.service;
+
+import com.trazzo.IntegrationTestSupport;
+import com.trazzo.model.User;
+import com.trazzo.model.enums.RiderStatus;
+import com.trazzo.model.enums.UserRole;
+import com.trazzo.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many assignments racing for the same candidate list must never win the same rider twice, and
+ * must between them claim every rider while claimers outnumber riders.
+ */
+@SpringBootTest
+class RiderClaimConcurrencyTest extends IntegrationTestSupport {
+
+    private static final int RIDERS = 8;
+    private static final int CLAIMERS = 32;
+
+    @Autowired
+    private RiderAssignmentService riderAssignmentService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void concurrentClaimsNeverShareARider() throws Exception {
+        List<Long> riderIds = new ArrayList<>();
+        for (int i = 0; i < RIDERS; i++) {
+            String suffix = UUID.randomUUID().toString().substring(0, 12);
+            riderIds.add(userRepository.save(User.builder()
+                    .email("rider-" + suffix + "@test.local")
+                    .phone("+1" + suffix)
+                    .passwordHash("x")
+                    .name("Rider " + i)
+                    .role(UserRole.RIDER)
+                    .riderStatus(RiderStatus.AVAILABLE)
+                    .build()).getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(CLAIMERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Optional<Long>>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < CLAIMERS; i++) {
+                Callable<Optional<Long>> claim = () -> {
+                    start.await();
+                    // Retry like the assignment worker does, so transient SKIP LOCKED losses do not count
+                    for (int attempt = 0; attempt < 20; attempt++) {
+                        Optional<Long> won = transactionTemplate.execute(status ->
+                                riderAssignmentService.claimFirstAvailable(riderIds).map(User::getId));
+                        if (won.isPresent() || userRepository.findAllById(riderIds).stream()
+                                .noneMatch(rider -> rider.getRiderStatus() == RiderStatus.AVAILABLE)) {
+                            return won;
+                        }
+                    }
+                    return Optional.empty();
+                };
+                results.add(executor.submit(claim));
+            }
+            start.countDown();
+
+            List<Long> won = new ArrayList<>();
+            for (Future<Optional<Long>> result : results) {
+                result.get().ifPresent(won::add);
+            }
+            assertThat(won).doesNotHaveDuplicates();
+            assertThat(won).containsExactlyInAnyOrderElementsOf(riderIds);
+            assertThat(userRepository.findAllById(riderIds))
+                    .allMatch(rider -> rider.getRiderStatus() == RiderStatus.BUSY);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -4,6 +4,8 @@ class ApiEndpoints {
   // Authentication
   static const String register = '/api/auth/register';
   static const String login = '/api/auth/login';
+  static const String refresh = '/api/auth/refresh';
+  static const String logout = '/api/auth/logout';
   
   // Customer
   static const String customerProfile = '/api/customer/profile';
@@ -18,12 +20,14 @@ class ApiEndpoints {
   static const String createChat = '/api/chat/create';
   static String chatMessages(int chatId) => '/api/chat/$chatId/messages';
   static String userChats(int userId) => '/api/chat/user/$userId';
+  static String markChatRead(int chatId) => '/api/chat/$chatId/read';
   static const String sendMessage = '/api/chat/send';
   
   // Orders
   static const String orders = '/api/orders';
   static const String ordersFromOffer = '/api/orders/from-offer';
   static String orderDetails(int orderId) => '/api/orders/$orderId';
+  static String deliveryOtp(int orderId) => '/api/orders/$orderId/delivery-otp';
   static String orderItems(int orderId) => '/api/orders/$orderId/items';
   static String confirmOrder(int orderId) => '/api/orders/$orderId/confirm';
   static String orderPayment(int orderId) => '/api/orders/$orderId/payment';
@@ -1,5 +1,6 @@
 import 'package:dio/dio.dart';
 import '../config/app_config.dart';
+import '../constants/api_endpoints.dart';
 import '../utils/token_storage.dart';
 
 class ApiService {
@@ -51,12 +52,34 @@ class ApiService {
     );
   }
 
-  Future<bool> _refreshToken() async {
+  // Refresh tokens rotate on every use, so concurrent 401s must share one refresh call;
+  // a second call with the same token would be treated as reuse and end the session.
+  Future<bool>? _refreshInFlight;
+
+  Future<bool> _refreshToken() {
+    return _refreshInFlight ??=
+        _doRefreshToken().whenComplete(() => _refreshInFlight = null);
+  }
+
+  Future<bool> _doRefreshToken() async {
     try {
       final refreshToken = await TokenStorage.getRefreshToken();
       if (refreshToken == null) return false;
-      // TODO: Implement refresh token endpoint
-      return false;
+      // Plain client: the refresh call must not go through the 401 interceptor
+      final response = await Dio(BaseOptions(
+        baseUrl: _dio.options.baseUrl,
+        connectTimeout: _dio.options.connectTimeout,
+        receiveTimeout: _dio.options.receiveTimeout,
+        headers: {'Content-Type': 'application/json'},
+      )).post(ApiEndpoints.refresh, data: {'refreshToken': refreshToken});
+      final data = response.data as Map<String, dynamic>;
+      await TokenStorage.saveTokens(
+        accessToken: data['accessToken'],
+        refreshToken: data['refreshToken'],
+        userId: data['userId'],
+        userRole: data['role'],
+      );
+      return true;
     } catch (e) {
       return false;
     }
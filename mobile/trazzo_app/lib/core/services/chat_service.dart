@@ -6,6 +6,9 @@ import '../../shared/models/chat.dart';
 import '../../shared/models/message.dart';
 
 class ChatService {
+  /// Messages per page of chat history (the server's default page size).
+  static const int messagePageSize = 50;
+
   final ApiService _apiService;
 
   ChatService(this._apiService);
@@ -68,11 +71,16 @@ class ChatService {
     }
   }
 
-  // Get chat messages
-  Future<List<Message>> getChatMessages(int chatId) async {
+  // Get chat messages: the newest page, or the page just older than [before]
+  // (the oldest message id the screen already shows). Oldest first.
+  Future<List<Message>> getChatMessages(int chatId, {int? before}) async {
     try {
       final response = await _apiService.get(
         ApiEndpoints.chatMessages(chatId),
+        queryParameters: {
+          'size': messagePageSize,
+          if (before != null) 'before': before,
+        },
       );
       
       if (response.data is List) {
@@ -87,6 +95,11 @@ class ChatService {
     }
   }
 
+  // Mark what the other party sent in this chat as read by the current user
+  Future<void> markRead(int chatId) async {
+    await _apiService.post(ApiEndpoints.markChatRead(chatId));
+  }
+
   // Send a message
   Future<Message> sendMessage({
     required int chatId,
@@ -114,6 +127,49 @@ class ChatService {
   }
 }
 
+/// Messages a chat screen has loaded: every newest page it was shown plus the earlier pages the
+/// user asked for, merged by id. Keeps messages on screen when a refetch of the newest page no
+/// longer includes them.
+class ChatHistory {
+  final Map<int, Message> _byId = {};
+  bool _pagedBack = false;
+  bool _hasEarlier = false;
+
+  /// Whether older messages may exist on the server.
+  bool get hasEarlier => _hasEarlier;
+
+  /// Oldest message loaded so far; the cursor for [ChatService.getChatMessages].
+  int? get oldestId => _byId.isEmpty ? null : messages().first.id;
+
+  /// All loaded messages with [newest] (the latest newest page) merged in, oldest first.
+  List<Message> merge(List<Message> newest) {
+    if (!_pagedBack) {
+      _hasEarlier = newest.length >= ChatService.messagePageSize;
+    }
+    for (final message in newest) {
+      _byId[message.id] = message;
+    }
+    return messages();
+  }
+
+  void addEarlier(List<Message> page) {
+    _pagedBack = true;
+    _hasEarlier = page.length >= ChatService.messagePageSize;
+    for (final message in page) {
+      _byId[message.id] = message;
+    }
+  }
+
+  List<Message> messages() {
+    final all = _byId.values.toList();
+    all.sort((a, b) {
+      final bySentAt = a.sentAt.compareTo(b.sentAt);
+      return bySentAt != 0 ? bySentAt : a.id.compareTo(b.id);
+    });
+    return all;
+  }
+}
+
 // Riverpod provider
 final chatServiceProvider = Provider<ChatService>((ref) {
   final apiService = ref.watch(apiServiceProvider);
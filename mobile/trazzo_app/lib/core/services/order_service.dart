@@ -63,22 +63,33 @@ class OrderService {
     return Order.fromJson(Map<String, dynamic>.from(res.data as Map));
   }
 
-  Future<List<Order>> getCustomerOrders(int customerId) async {
-    final res = await _api.get(ApiEndpoints.customerOrders(customerId));
-    final list = res.data is List ? res.data as List : <dynamic>[];
-    return list.map((e) => Order.fromJson(Map<String, dynamic>.from(e as Map))).toList();
-  }
+  Future<List<Order>> getCustomerOrders(int customerId) =>
+      _getAllPages(ApiEndpoints.customerOrders(customerId));
 
-  Future<List<Order>> getBusinessOrders(int businessId) async {
-    final res = await _api.get(ApiEndpoints.businessOrders(businessId));
-    final list = res.data is List ? res.data as List : <dynamic>[];
-    return list.map((e) => Order.fromJson(Map<String, dynamic>.from(e as Map))).toList();
-  }
+  Future<List<Order>> getBusinessOrders(int businessId) =>
+      _getAllPages(ApiEndpoints.businessOrders(businessId));
+
+  Future<List<Order>> getRiderOrders(int riderId) =>
+      _getAllPages(ApiEndpoints.riderOrders(riderId));
+
+  /// Orders per request of the list endpoints (the server's maximum page size).
+  static const int _listPageSize = 100;
 
-  Future<List<Order>> getRiderOrders(int riderId) async {
-    final res = await _api.get(ApiEndpoints.riderOrders(riderId));
-    final list = res.data is List ? res.data as List : <dynamic>[];
-    return list.map((e) => Order.fromJson(Map<String, dynamic>.from(e as Map))).toList();
+  // The list endpoints return one page (newest first); fetch pages until a short one so the
+  // screens still see every order. Orders created meanwhile shift later pages, so ids already
+  // seen are skipped.
+  Future<List<Order>> _getAllPages(String path) async {
+    final orders = <Order>[];
+    final seen = <int>{};
+    for (var page = 0;; page++) {
+      final res = await _api.get(path, queryParameters: {'page': page, 'size': _listPageSize});
+      final list = res.data is List ? res.data as List : <dynamic>[];
+      for (final e in list) {
+        final order = Order.fromJson(Map<String, dynamic>.from(e as Map));
+        if (seen.add(order.id)) orders.add(order);
+      }
+      if (list.length < _listPageSize) return orders;
+    }
   }
 
   Future<Order> updateOrderItems(int orderId, List<OrderItem> items) async {
@@ -108,8 +119,18 @@ class OrderService {
     return Order.fromJson(Map<String, dynamic>.from(res.data as Map));
   }
 
-  Future<Order> riderMarkDelivered(int orderId) async {
-    final res = await _api.post(ApiEndpoints.markDelivered(orderId));
+  /// Code the customer gives the rider at the door (customer only, while in transit).
+  Future<String> getDeliveryOtp(int orderId) async {
+    final res = await _api.get(ApiEndpoints.deliveryOtp(orderId));
+    return (res.data as Map)['otp'] as String;
+  }
+
+  /// [otp] is required only for orders with [Order.hasDeliveryCode].
+  Future<Order> riderMarkDelivered(int orderId, String? otp) async {
+    final res = await _api.post(
+      ApiEndpoints.markDelivered(orderId),
+      queryParameters: otp != null ? {'otp': otp} : null,
+    );
     return Order.fromJson(Map<String, dynamic>.from(res.data as Map));
   }
 }
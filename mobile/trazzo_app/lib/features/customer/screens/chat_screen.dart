@@ -36,6 +36,9 @@ class _ChatScreenState extends ConsumerState<ChatScreen> {
   final ScrollController _scrollController = ScrollController();
   int? _chatId;
   bool _isLoading = false;
+  final ChatHistory _history = ChatHistory();
+  bool _loadingEarlier = false;
+  int? _markedReadUpTo;
 
   @override
   void dispose() {
@@ -114,6 +117,54 @@ class _ChatScreenState extends ConsumerState<ChatScreen> {
     }
   }
 
+  // Tell the server once per newly seen unread message from the other party
+  void _markReadIfNeeded(int chatId, List<Message> messages) {
+    final me = ref.read(currentUserIdProvider).value;
+    if (me == null) return;
+    final unread = messages.where((m) => m.senderId != me && !m.isRead);
+    if (unread.isEmpty) return;
+    final newest = unread.last.id;
+    if (_markedReadUpTo != null && _markedReadUpTo! >= newest) return;
+    _markedReadUpTo = newest;
+    ref.read(chatServiceProvider).markRead(chatId).catchError((_) {
+      // Retried when the next page of messages arrives
+      _markedReadUpTo = null;
+    });
+  }
+
+  Future<void> _loadEarlier() async {
+    final before = _history.oldestId;
+    if (_loadingEarlier || before == null) return;
+    setState(() => _loadingEarlier = true);
+    try {
+      final page = await ref.read(chatServiceProvider).getChatMessages(_chatId!, before: before);
+      _history.addEarlier(page);
+    } catch (e) {
+      if (mounted) {
+        ScaffoldMessenger.of(context).showSnackBar(
+          SnackBar(content: Text('Error loading messages: ${e.toString()}')),
+        );
+      }
+    } finally {
+      if (mounted) setState(() => _loadingEarlier = false);
+    }
+  }
+
+  Widget _buildLoadEarlier() {
+    return Center(
+      child: TextButton(
+        onPressed: _loadingEarlier ? null : _loadEarlier,
+        child: _loadingEarlier
+            ? const SizedBox(
+                width: 16,
+                height: 16,
+                child: CircularProgressIndicator(strokeWidth: 2),
+              )
+            : const Text('Load earlier messages'),
+      ),
+    );
+  }
+
   @override
   Widget build(BuildContext context) {
     // Get business details for header
@@ -154,7 +205,9 @@ class _ChatScreenState extends ConsumerState<ChatScreen> {
                 // Messages list
                 Expanded(
                   child: ref.watch(chatMessagesProvider(_chatId!)).when(
-                    data: (messages) {
+                    data: (newest) {
+                      final messages = _history.merge(newest);
+                      WidgetsBinding.instance.addPostFrameCallback((_) => _markReadIfNeeded(_chatId!, messages));
                       if (messages.isEmpty) {
                         return Center(
                           child: Column(
@@ -179,8 +232,12 @@ class _ChatScreenState extends ConsumerState<ChatScreen> {
                       return ListView.builder(
                         controller: _scrollController,
                         padding: const EdgeInsets.all(16),
-                        itemCount: messages.length,
+                        itemCount: messages.length + (_history.hasEarlier ? 1 : 0),
                         itemBuilder: (context, index) {
+                          if (_history.hasEarlier) {
+                            if (index == 0) return _buildLoadEarlier();
+                            index -= 1;
+                          }
                           final message = messages[index];
                           final currentUserId = ref.watch(currentUserIdProvider).value;
                           final isMe = currentUserId == message.senderId;
@@ -11,6 +11,10 @@ final _orderDetailProvider = FutureProvider.family<Order, int>((ref, id) async {
   return ref.read(orderServiceProvider).getOrder(id);
 });
 
+final _deliveryOtpProvider = FutureProvider.family<String, int>((ref, id) async {
+  return ref.read(orderServiceProvider).getDeliveryOtp(id);
+});
+
 class OrderDetailScreen extends ConsumerStatefulWidget {
   final int orderId;
 
@@ -91,6 +95,11 @@ class _OrderDetailScreenState extends ConsumerState<OrderDetailScreen> {
                 _section('Status', order.statusDisplay),
                 _section('Business', order.businessName ?? '—'),
                 _section('Delivery', order.deliveryAddress),
+                if (order.isInTransit)
+                  ref.watch(_deliveryOtpProvider(order.id)).maybeWhen(
+                        data: (otp) => _section('Delivery code (give to rider)', otp),
+                        orElse: () => const SizedBox.shrink(),
+                      ),
                 if (order.riderId != null && (order.riderName != null || order.riderPhone != null)) ...[
                   const SizedBox(height: 8),
                   _riderSection(order),
@@ -77,9 +77,42 @@ class _RiderHomeScreenState extends ConsumerState<RiderHomeScreen> {
     }
   }
 
+  Future<String?> _askDeliveryCode() {
+    final controller = TextEditingController();
+    return showDialog<String>(
+      context: context,
+      builder: (context) => AlertDialog(
+        title: const Text('Delivery code'),
+        content: TextField(
+          controller: controller,
+          keyboardType: TextInputType.number,
+          maxLength: 6,
+          autofocus: true,
+          decoration: const InputDecoration(hintText: 'Code from the customer'),
+        ),
+        actions: [
+          TextButton(
+            onPressed: () => Navigator.pop(context),
+            child: const Text('Cancel'),
+          ),
+          ElevatedButton(
+            onPressed: () => Navigator.pop(context, controller.text.trim()),
+            child: const Text('Confirm'),
+          ),
+        ],
+      ),
+    );
+  }
+
   Future<void> _markDelivered(Order o) async {
+    // Orders from before delivery codes were issued have none to ask for
+    String? otp;
+    if (o.hasDeliveryCode) {
+      otp = await _askDeliveryCode();
+      if (otp == null || otp.isEmpty) return;
+    }
     try {
-      await ref.read(orderServiceProvider).riderMarkDelivered(o.id);
+      await ref.read(orderServiceProvider).riderMarkDelivered(o.id, otp);
       ref.invalidate(_riderOrdersProvider);
       if (mounted) {
         ScaffoldMessenger.of(context).showSnackBar(
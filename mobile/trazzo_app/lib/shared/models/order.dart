@@ -21,6 +21,8 @@ class Order {
   final DateTime? createdAt;
   final DateTime? confirmedAt;
   final DateTime? deliveredAt;
+  /// A delivery code was issued; marking the order delivered needs it.
+  final bool hasDeliveryCode;
 
   Order({
     required this.id,
@@ -43,6 +45,7 @@ class Order {
     this.createdAt,
     this.confirmedAt,
     this.deliveredAt,
+    this.hasDeliveryCode = false,
   });
 
   factory Order.fromJson(Map<String, dynamic> json) {
@@ -75,7 +78,7 @@ class Order {
       customerName: _nameFrom(cust) ?? json['customerName'],
       businessId: _idFrom(biz) ?? int.tryParse('${json['businessId']}') ?? 0,
       businessName: _nameFrom(biz) ?? json['businessName'],
-      riderId: rider != null ? _idFrom(rider) : null,
+      riderId: rider != null ? _idFrom(rider) : int.tryParse('${json['riderId']}'),
       riderName: rider != null ? _nameFrom(rider) : json['riderName'],
       riderPhone: rider != null ? _phoneFrom(rider) : json['riderPhone'],
       chatId: _idFrom(chat) ?? int.tryParse('${json['chatId']}') ?? 0,
@@ -90,6 +93,7 @@ class Order {
       createdAt: json['createdAt'] != null ? DateTime.tryParse(json['createdAt']) : null,
       confirmedAt: json['confirmedAt'] != null ? DateTime.tryParse(json['confirmedAt']) : null,
       deliveredAt: json['deliveredAt'] != null ? DateTime.tryParse(json['deliveredAt']) : null,
+      hasDeliveryCode: json['hasDeliveryCode'] == true,
     );
   }
 